@@ -0,0 +1,89 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.programyourhome.adventureroom.module.immerse.content.AudioFileServer;
+
+/**
+ * Throughput of the embedded audio server with a local client on keep-alive connections:
+ * complete files, like a repeated effect, and 64 KB ranges, like a client that streams a looping track in parts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+public class AudioFileServerBenchmark {
+
+    private static final int RANGE_SIZE = 64 * 1024;
+
+    @Param({ "256", "16384" })
+    public int fileSizeKb;
+
+    private Path audioFile;
+    private AudioFileServer server;
+    private URL url;
+
+    @Setup
+    public void setup() throws IOException {
+        this.audioFile = Files.createTempFile("server-benchmark", ".pcm");
+        Files.write(this.audioFile, new byte[this.fileSizeKb * 1024]);
+        this.server = new AudioFileServer("127.0.0.1", 0);
+        this.server.start();
+        this.url = new URL(this.server.getUrl(this.audioFile, 0));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.server.stop();
+        Files.delete(this.audioFile);
+    }
+
+    @Benchmark
+    public long completeFile() throws IOException {
+        return this.read((HttpURLConnection) this.url.openConnection());
+    }
+
+    @Benchmark
+    public long range() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+        connection.setRequestProperty("Range", "bytes=0-" + (RANGE_SIZE - 1));
+        return this.read(connection);
+    }
+
+    private long read(HttpURLConnection connection) throws IOException {
+        byte[] buffer = new byte[16 * 1024];
+        long total = 0;
+        // Reading to the end and closing the stream returns the connection to the keep-alive cache.
+        try (InputStream inputStream = connection.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.programyourhome.adventureroom.module.immerse.content.AudioFormatProbe;
+import com.programyourhome.adventureroom.module.immerse.content.ProbedAudio;
+
+/**
+ * Format detection of an audio file: reading the header on every play versus the cached header metadata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AudioFormatProbeBenchmark {
+
+    private File audioFile;
+    private String url;
+    private AudioFormatProbe cachedProbe;
+
+    @Setup
+    public void setup() throws IOException {
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
+        // One second of silence.
+        byte[] audio = new byte[44100 * format.getFrameSize()];
+        this.audioFile = File.createTempFile("probe-benchmark", ".wav");
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(audio), format, 44100), AudioFileFormat.Type.WAVE, this.audioFile);
+        this.url = this.audioFile.toURI().toURL().toString();
+        this.cachedProbe = new AudioFormatProbe(true);
+        if (!this.cachedProbe.probe(this.url).isRawPcmPlayable()) {
+            throw new IllegalStateException("Benchmark audio file not recognized");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.audioFile.delete();
+    }
+
+    @Benchmark
+    public ProbedAudio probeEveryPlay() {
+        return new AudioFormatProbe(true).probe(this.url);
+    }
+
+    @Benchmark
+    public ProbedAudio probeCached() {
+        return this.cachedProbe.probe(this.url);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleLexer;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.ActionContext;
+
+/**
+ * Parsing action lines with full LL prediction, the way the adventure-room framework parses them, versus SLL first
+ * with a full LL retry for lines SLL cannot parse. The framework creates and configures its parser itself, so the
+ * module cannot switch it to the two stage strategy; this measures what that would gain for the Immerse grammar.
+ * One operation is one parsed line, so the throughput is in lines per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ParsePredictionBenchmark {
+
+    private static final int CORPUS_SIZE = 10000;
+
+    public enum PredictionStrategy {
+        LL, SLL_THEN_LL
+    }
+
+    @Param({ "LL", "SLL_THEN_LL" })
+    public PredictionStrategy predictionStrategy;
+
+    private List<String> lines;
+    private int lineIndex;
+
+    @Setup
+    public void setup() {
+        this.lines = ScriptCorpus.generateAllSyntax(CORPUS_SIZE);
+    }
+
+    @Benchmark
+    public ActionContext parseLine() {
+        this.lineIndex = (this.lineIndex + 1) % CORPUS_SIZE;
+        ImmerseAdventureModuleParser parser = new ImmerseAdventureModuleParser(
+                new CommonTokenStream(new ImmerseAdventureModuleLexer(CharStreams.fromString(this.lines.get(this.lineIndex)))));
+        if (this.predictionStrategy == PredictionStrategy.SLL_THEN_LL) {
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(new BailErrorStrategy());
+            try {
+                return parser.action();
+            } catch (ParseCancellationException e) {
+                // SLL could not parse the line, retry from the start with full LL prediction.
+                parser.getTokenStream().seek(0);
+                parser.reset();
+                parser.setErrorHandler(new DefaultErrorStrategy());
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            }
+        }
+        return parser.action();
+    }
+
+}
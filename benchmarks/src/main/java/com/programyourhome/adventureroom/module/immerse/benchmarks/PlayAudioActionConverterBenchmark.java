@@ -0,0 +1,77 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleLexer;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.ActionContext;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.PlayAudioActionConverter;
+
+import one.util.streamex.StreamEx;
+
+/**
+ * Lexing, parsing and converting long scripts of play audio actions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PlayAudioActionConverterBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int lineCount;
+
+    private List<String> lines;
+    private List<ActionContext> parsedLines;
+    private PlayAudioActionConverter converter;
+
+    @Setup
+    public void setup() {
+        this.lines = StreamEx.of(ScriptCorpus.generate(this.lineCount * 2))
+                .filter(line -> line.startsWith("play ") && !line.startsWith("play background music "))
+                .limit(this.lineCount)
+                .toList();
+        this.parsedLines = StreamEx.of(this.lines).map(PlayAudioActionConverterBenchmark::parse).toList();
+        this.converter = new PlayAudioActionConverter();
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        this.lines.forEach(line -> blackhole.consume(parse(line)));
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        this.parsedLines.forEach(action -> blackhole.consume(this.converter.convert(action.playAudioAction(), null)));
+    }
+
+    @Benchmark
+    public void parseAndConvert(Blackhole blackhole) {
+        this.lines.forEach(line -> blackhole.consume(this.converter.convert(parse(line).playAudioAction(), null)));
+    }
+
+    static ActionContext parse(String line) {
+        ImmerseAdventureModuleLexer lexer = new ImmerseAdventureModuleLexer(CharStreams.fromString(line));
+        ImmerseAdventureModuleParser parser = new ImmerseAdventureModuleParser(new CommonTokenStream(lexer));
+        return parser.action();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.programyourhome.adventureroom.module.immerse.content.AudioFormatProbe;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.PlayAudioActionConverter;
+import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction;
+import com.programyourhome.adventureroom.module.immerse.module.ImmerseConfig;
+import com.programyourhome.adventureroom.module.immerse.playback.PlayAudioScenarioCompiler;
+import com.programyourhome.adventureroom.module.immerse.playback.PlaybackDispatcher;
+import com.programyourhome.adventureroom.module.immerse.playback.ScenarioTemplateCache;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.adventureroom.module.immerse.service.SimulatedImmerse;
+import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
+
+import one.util.streamex.StreamEx;
+
+/**
+ * The play audio executor path against the simulated Immerse service: from parsed action to started playback.
+ * Compares the cached scenario templates with compiling the scenario on every trigger, like scripts that loop the same actions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlayAudioExecutionBenchmark {
+
+    private static final String FILE_URL = "http://localhost/effect.wav";
+    private static final Optional<Consumer<ScenarioBuilder>> FILE_RESOURCE = Optional.of(builder -> builder.urlWithType(FILE_URL, AudioFileType.WAVE));
+
+    @Param({ "8", "64", "512" })
+    public int speakerCount;
+
+    private SimulatedImmerse immerse;
+    private PlaybackDispatcher dispatcher;
+    private PlayAudioScenarioCompiler compiler;
+    private List<PlayAudioAction> actions;
+
+    @Setup
+    public void setup() {
+        this.immerse = new SimulatedImmerse(0, 0, 0, 0);
+        this.immerse.connect(Rooms.settings(this.speakerCount), "localhost", 0);
+        this.dispatcher = new PlaybackDispatcher(this.immerse);
+        this.compiler = new PlayAudioScenarioCompiler(new AudioFormatProbe(false), new ImmerseConfig(), new ScenarioTemplateCache(this.immerse));
+        PlayAudioActionConverter converter = new PlayAudioActionConverter();
+        this.actions = StreamEx.of(ScriptCorpus.generate(200))
+                .filter(line -> line.startsWith("play effect"))
+                .map(line -> converter.convert(PlayAudioActionConverterBenchmark.parse(line).playAudioAction(), null))
+                .toList();
+    }
+
+    @Benchmark
+    public void triggerWithTemplateCache(Blackhole blackhole) {
+        this.actions.forEach(action -> blackhole.consume(this.dispatcher.play(this.compiler.buildScenario(action, this.immerse, FILE_RESOURCE)).join()));
+    }
+
+    @Benchmark
+    public void triggerWithoutTemplateCache(Blackhole blackhole) {
+        this.actions.forEach(action -> blackhole.consume(this.dispatcher.play(this.compiler.compileScenario(action, this.immerse)
+                .urlWithType(FILE_URL, AudioFileType.WAVE)
+                .build()).join()));
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.programyourhome.adventureroom.module.immerse.playback.PlaybackDispatcher;
+import com.programyourhome.adventureroom.module.immerse.service.SimulatedImmerse;
+import com.programyourhome.immerse.domain.Scenario;
+import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
+
+import one.util.streamex.IntStreamEx;
+import one.util.streamex.StreamEx;
+
+/**
+ * Stress test of the playback dispatcher: starts thousands of short concurrent playbacks on the simulated Immerse service
+ * and waits for all of them, either until they end by themselves or after stopping every other playback right after its start.
+ * Reports the peak amount of live threads, the CPU time per playback, the CPU usage of the process over the whole run
+ * (in percent of all cores) and the wake-up latency: the time between the end or stop of a playback and the moment its waiter is notified.
+ * The simulated service ends playbacks from a single scheduler thread. ImmerseImpl does not hold a thread per playback
+ * either, it only observes the end of a playback when it is stopped or when a caller waits for it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PlaybackDispatcherBenchmark {
+
+    private static final long PLAYBACK_MILLIS = 50;
+
+    @Param({ "500", "5000" })
+    public int concurrentPlaybacks;
+
+    private PlaybackDispatcher dispatcher;
+    private Scenario scenario;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long peakThreads;
+        public long cpuMicrosPerPlayback;
+        public long cpuUsagePercent;
+        public long maxWakeUpMicros;
+    }
+
+    @Setup
+    public void setup() {
+        SimulatedImmerse immerse = new SimulatedImmerse(0, 0, PLAYBACK_MILLIS, 0);
+        immerse.connect(Rooms.settings(8), "localhost", 0);
+        this.dispatcher = new PlaybackDispatcher(immerse);
+        this.scenario = immerse.scenarioBuilder().urlWithType("http://localhost/effect.wav", AudioFileType.WAVE).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakThreads() {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @Benchmark
+    public void playAndAwaitAll(Counters counters) {
+        this.run(counters, false);
+    }
+
+    @Benchmark
+    public void playStopAndAwaitAll(Counters counters) {
+        this.run(counters, true);
+    }
+
+    private void run(Counters counters, boolean stopEveryOther) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        com.sun.management.OperatingSystemMXBean osBean = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuNanosBefore = osBean.getProcessCpuTime();
+        long wallNanosBefore = System.nanoTime();
+        AtomicLong maxWakeUpNanos = new AtomicLong();
+
+        List<CompletableFuture<UUID>> completions = IntStreamEx.range(this.concurrentPlaybacks)
+                .mapToObj(index -> this.dispatcher.play(this.scenario).thenCompose(playbackId -> {
+                    long expectedEndNanos;
+                    if (stopEveryOther && index % 2 == 0) {
+                        expectedEndNanos = System.nanoTime();
+                        this.dispatcher.stop(playbackId);
+                    } else {
+                        expectedEndNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PLAYBACK_MILLIS);
+                    }
+                    return this.dispatcher.completion(playbackId).whenComplete((result, exception) -> maxWakeUpNanos
+                            .accumulateAndGet(System.nanoTime() - expectedEndNanos, Math::max));
+                }))
+                .toList();
+        CompletableFuture.allOf(StreamEx.of(completions).toArray(CompletableFuture[]::new)).join();
+
+        long cpuNanos = osBean.getProcessCpuTime() - cpuNanosBefore;
+        long wallNanos = System.nanoTime() - wallNanosBefore;
+        counters.peakThreads = threadBean.getPeakThreadCount();
+        counters.cpuMicrosPerPlayback = TimeUnit.NANOSECONDS.toMicros(cpuNanos) / this.concurrentPlaybacks;
+        counters.cpuUsagePercent = cpuNanos * 100 / (wallNanos * Runtime.getRuntime().availableProcessors());
+        counters.maxWakeUpMicros = TimeUnit.NANOSECONDS.toMicros(maxWakeUpNanos.get());
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.programyourhome.immerse.domain.ImmerseSettings;
+import com.programyourhome.immerse.domain.Room;
+import com.programyourhome.immerse.domain.format.ByteOrder;
+import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
+import com.programyourhome.immerse.domain.format.RecordingMode;
+import com.programyourhome.immerse.domain.format.SampleRate;
+import com.programyourhome.immerse.domain.format.SampleSize;
+import com.programyourhome.immerse.domain.location.Vector3D;
+import com.programyourhome.immerse.domain.speakers.Speaker;
+
+import one.util.streamex.IntStreamEx;
+
+/**
+ * Benchmark fixtures: rooms with the given amount of speakers, evenly spread over rings along the walls.
+ */
+public class Rooms {
+
+    public static final double ROOM_SIZE = 1000;
+    private static final int SPEAKERS_PER_RING = 8;
+
+    private Rooms() {
+    }
+
+    public static ImmerseSettings settings(int speakerCount) {
+        return ImmerseSettings.builder()
+                .room(room(speakerCount))
+                .soundCards(Collections.emptySet())
+                .outputFormat(ImmerseAudioFormat.builder()
+                        .recordingMode(RecordingMode.STEREO)
+                        .sampleRate(SampleRate.valueOf("RATE_44"))
+                        .sampleSize(SampleSize.TWO_BYTES)
+                        .setSigned(true)
+                        .byteOrder(ByteOrder.LITTLE_ENDIAN)
+                        .buildForOutput())
+                .build();
+    }
+
+    public static Room room(int speakerCount) {
+        Set<Speaker> speakers = IntStreamEx.range(speakerCount).mapToObj(Rooms::speaker).toSet();
+        return Room.builder()
+                .name("Benchmark room " + speakerCount)
+                .description("Room with " + speakerCount + " speakers")
+                .dimensions(new Vector3D(ROOM_SIZE, ROOM_SIZE, ROOM_SIZE))
+                .addSpeakers(speakers)
+                .build();
+    }
+
+    private static Speaker speaker(int index) {
+        int ringCount = Math.max(1, 512 / SPEAKERS_PER_RING);
+        double angle = 2 * Math.PI * (index % SPEAKERS_PER_RING) / SPEAKERS_PER_RING;
+        double height = ROOM_SIZE * (index / SPEAKERS_PER_RING % ringCount) / ringCount;
+        double radius = ROOM_SIZE / 2;
+        return Speaker.builder()
+                .id(index + 1)
+                .name("Speaker " + (index + 1))
+                .description("Benchmark speaker")
+                .position(new Vector3D(radius + radius * Math.cos(angle), height, radius + radius * Math.sin(angle)))
+                .build();
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
+import com.programyourhome.adventureroom.module.immerse.service.PathKeyFrames;
+import com.programyourhome.adventureroom.module.immerse.service.RoomGeometry;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilderImpl;
+import com.programyourhome.immerse.domain.Factory;
+import com.programyourhome.immerse.domain.ImmerseSettings;
+import com.programyourhome.immerse.domain.Scenario;
+import com.programyourhome.immerse.domain.ScenarioSettings;
+import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
+import com.programyourhome.immerse.domain.location.Vector3D;
+import com.programyourhome.immerse.domain.location.dynamic.DynamicLocation;
+import com.programyourhome.immerse.domain.speakers.SpeakerVolumeRatios;
+import com.programyourhome.immerse.toolbox.audio.playback.LoopPlayback;
+import com.programyourhome.immerse.toolbox.audio.resource.UrlAudioResource;
+import com.programyourhome.immerse.toolbox.speakers.algorithms.normalize.FractionalNormalizeAlgorithm;
+import com.programyourhome.immerse.toolbox.speakers.algorithms.volumeratios.FixedVolumeRatiosAlgorithm;
+import com.programyourhome.immerse.toolbox.volume.dynamic.FixedDynamicVolume;
+
+import one.util.streamex.IntStreamEx;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ScenarioBuilderBenchmark {
+
+    @Param({ "8", "64", "512" })
+    public int speakerCount;
+
+    private ImmerseSettings settings;
+    private RoomGeometry roomGeometry;
+    private ScenarioBuilder builder;
+    private List<Integer> halfOfSpeakers;
+    private List<Vector3D> path;
+    private DynamicLocation circlingLocation;
+    private DynamicLocation sampledCirclingLocation;
+    private long queryMillis;
+
+    @Setup
+    public void setup() {
+        this.settings = Rooms.settings(this.speakerCount);
+        this.roomGeometry = RoomGeometry.of(this.settings.getRoom());
+        this.builder = new ScenarioBuilderImpl(this.settings, this.roomGeometry);
+        this.halfOfSpeakers = IntStreamEx.rangeClosed(1, this.speakerCount, 2).boxed().toList();
+        this.circlingLocation = this.builder.circling(new Vector3D(500, 500, 500), 0, 300, 250, true).create();
+        this.sampledCirclingLocation = new ScenarioBuilderImpl(this.settings, this.roomGeometry)
+                .sampleTrajectories(20)
+                .circling(new Vector3D(500, 500, 500), 0, 300, 250, true)
+                .create();
+        this.path = IntStreamEx.range(200).mapToObj(index -> new Vector3D(index * 5, Math.abs(100 - index) * 3, index % 50)).toList();
+    }
+
+    @Benchmark
+    public ScenarioBuilder newBuilder() {
+        return new ScenarioBuilderImpl(this.settings, this.roomGeometry);
+    }
+
+    /**
+     * The one time cost per adventure start that the builders share.
+     */
+    @Benchmark
+    public RoomGeometry roomGeometry() {
+        return RoomGeometry.of(this.settings.getRoom());
+    }
+
+    @Benchmark
+    public ScenarioBuilder sourceAtSpeakers() {
+        return this.builder.sourceAtSpeakers(this.halfOfSpeakers);
+    }
+
+    @Benchmark
+    public ScenarioBuilder sourceAtAllSpeakers() {
+        return this.builder.sourceAtAllSpeakers();
+    }
+
+    @Benchmark
+    public Factory<DynamicLocation> atCenter() {
+        return this.builder.atCenter();
+    }
+
+    @Benchmark
+    public Factory<DynamicLocation> atPath() {
+        return this.builder.atPath(this.path, 100, false);
+    }
+
+    @Benchmark
+    public Factory<DynamicLocation> atSmoothPath() {
+        return this.builder.atSmoothPath(this.path, 100, true);
+    }
+
+    /**
+     * Key frame calculation without the path cache, like the first play of a path.
+     */
+    @Benchmark
+    public SortedMap<Long, Vector3D> pathKeyFramesUncached() {
+        return PathKeyFrames.calculateKeyFrames(this.path, 100, false, false);
+    }
+
+    @Benchmark
+    public SortedMap<Long, Vector3D> smoothPathKeyFramesUncached() {
+        return PathKeyFrames.calculateKeyFrames(this.path, 100, true, true);
+    }
+
+    @Benchmark
+    public Factory<DynamicLocation> circling() {
+        return this.builder.circling(new Vector3D(500, 500, 500), 0, 300, 250, true);
+    }
+
+    /**
+     * Circling sampled into a shared position table: the client side cost per scenario, after the first.
+     */
+    @Benchmark
+    public Factory<DynamicLocation> sampledCircling() {
+        return new ScenarioBuilderImpl(this.settings, this.roomGeometry)
+                .sampleTrajectories(20)
+                .circling(new Vector3D(500, 500, 500), 0, 300, 250, true);
+    }
+
+    /**
+     * A location query as done by the mixer for every buffer, on the circle and on its sampled table.
+     */
+    @Benchmark
+    public Vector3D circlingLocationQuery() {
+        this.queryMillis += 23;
+        return this.circlingLocation.getLocation(this.queryMillis);
+    }
+
+    @Benchmark
+    public Vector3D sampledCirclingLocationQuery() {
+        this.queryMillis += 23;
+        return this.sampledCirclingLocation.getLocation(this.queryMillis);
+    }
+
+    /**
+     * A rapidly triggered sound effect that keeps all defaults except the resource, the case the defaults
+     * prototype is meant for. Run with -prof gc and compare gc.alloc.rate.norm with
+     * triggerDefaultScenarioEagerDefaults.
+     */
+    @Benchmark
+    public Scenario triggerDefaultScenario() {
+        return new ScenarioBuilderImpl(this.settings, this.roomGeometry)
+                .urlWithType("http://localhost/effect.wav", AudioFileType.WAVE)
+                .build();
+    }
+
+    /**
+     * Baseline for triggerDefaultScenario: the same scenario built the way the builder did before the defaults
+     * prototype, with fresh Immerse builders and all default factories created eagerly for every scenario.
+     */
+    @Benchmark
+    public Scenario triggerDefaultScenarioEagerDefaults() {
+        Scenario.Builder scenarioBuilder = Scenario.builder()
+                .name("Builder Scenario")
+                .description("Scenario built by the ScenarioBuilder");
+        ScenarioSettings.Builder settingsBuilder = ScenarioSettings.builder();
+        settingsBuilder.volume(FixedDynamicVolume.full());
+        settingsBuilder.volumeRatiosAlgorithm(FixedVolumeRatiosAlgorithm.fixed(
+                new SpeakerVolumeRatios(this.roomGeometry.getVolumes(SpeakerMask.all()))));
+        settingsBuilder.normalizeAlgorithm(FractionalNormalizeAlgorithm.fractional());
+        settingsBuilder.playback(LoopPlayback.once());
+        settingsBuilder.audioResource(UrlAudioResource.urlWithType("http://localhost/effect.wav", AudioFileType.WAVE));
+        return scenarioBuilder.settings(settingsBuilder.build()).build();
+    }
+
+    @Benchmark
+    public Scenario triggerScenarioWithOverrides() {
+        return new ScenarioBuilderImpl(this.settings, this.roomGeometry)
+                .urlWithType("http://localhost/effect.wav", AudioFileType.WAVE)
+                .volume(0.5)
+                .sourceAtSpeakers(this.halfOfSpeakers)
+                .playRepeat(2)
+                .build();
+    }
+
+    @Benchmark
+    public Scenario buildPositionedSound() {
+        return this.buildPositionedSound(false);
+    }
+
+    /**
+     * The positioned sound with the speaker volume ratios calculated on the client, which moves the per buffer
+     * field of hearing calculation out of the mixer. Mixer CPU itself is not part of this benchmark.
+     */
+    @Benchmark
+    public Scenario buildPositionedSoundWithBakedVolumeRatios() {
+        return this.buildPositionedSound(true);
+    }
+
+    private Scenario buildPositionedSound(boolean bakeStaticVolumeRatios) {
+        ScenarioBuilder positionedBuilder = new ScenarioBuilderImpl(this.settings, this.roomGeometry)
+                .bakeStaticVolumeRatios(bakeStaticVolumeRatios)
+                .name("Positioned")
+                .urlWithType("http://localhost/effect.wav", AudioFileType.WAVE)
+                .volume(0.8);
+        return positionedBuilder
+                .fieldOfHearingVolume(positionedBuilder.atLocation(new Vector3D(100, 200, 300)), positionedBuilder.atCenter())
+                .volumeAsOneSpeaker()
+                .build();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.programyourhome.adventureroom.model.script.action.Action;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.ActionContext;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.PlayAudioActionConverter;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.PlayAudioGroupActionConverter;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.PlayBackgroundMusicActionConverter;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.StopAudioActionConverter;
+import com.programyourhome.adventureroom.module.immerse.dsl.converters.StopBackgroundMusicActionConverter;
+
+/**
+ * Lexing, parsing and converting complete scripts with all Immerse actions, through the generated direct converters.
+ * The throughput is in scripts per second, multiply by the line count for lines per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ScriptConversionBenchmark {
+
+    @Param({ "10000", "50000" })
+    public int lineCount;
+
+    private List<String> lines;
+    private PlayAudioActionConverter playAudioActionConverter;
+    private PlayAudioGroupActionConverter playAudioGroupActionConverter;
+    private StopAudioActionConverter stopAudioActionConverter;
+    private PlayBackgroundMusicActionConverter playBackgroundMusicActionConverter;
+    private StopBackgroundMusicActionConverter stopBackgroundMusicActionConverter;
+
+    @Setup
+    public void setup() {
+        this.lines = ScriptCorpus.generate(this.lineCount);
+        this.playAudioActionConverter = new PlayAudioActionConverter();
+        this.playAudioGroupActionConverter = new PlayAudioGroupActionConverter();
+        this.stopAudioActionConverter = new StopAudioActionConverter();
+        this.playBackgroundMusicActionConverter = new PlayBackgroundMusicActionConverter();
+        this.stopBackgroundMusicActionConverter = new StopBackgroundMusicActionConverter();
+    }
+
+    @Benchmark
+    public void parseAndConvert(Blackhole blackhole) {
+        this.lines.forEach(line -> blackhole.consume(this.convert(PlayAudioActionConverterBenchmark.parse(line))));
+    }
+
+    private Action convert(ActionContext context) {
+        if (context.playAudioAction() != null) {
+            return this.playAudioActionConverter.convert(context.playAudioAction(), null);
+        } else if (context.playAudioGroupAction() != null) {
+            return this.playAudioGroupActionConverter.convert(context.playAudioGroupAction(), null);
+        } else if (context.stopAudioAction() != null) {
+            return this.stopAudioActionConverter.convert(context.stopAudioAction(), null);
+        } else if (context.playBackgroundMusicAction() != null) {
+            return this.playBackgroundMusicActionConverter.convert(context.playBackgroundMusicAction(), null);
+        } else {
+            return this.stopBackgroundMusicActionConverter.convert(context.stopBackgroundMusicAction(), null);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+
+import one.util.streamex.IntStreamEx;
+
+/**
+ * Generates realistic Immerse action lines, with a fixed seed so every run uses the same corpus.
+ */
+public class ScriptCorpus {
+
+    private static final long SEED = 42;
+
+    private ScriptCorpus() {
+    }
+
+    public static List<String> generate(int lineCount) {
+        Random random = new Random(SEED);
+        return IntStreamEx.range(lineCount).mapToObj(index -> line(index, random)).toList();
+    }
+
+    /**
+     * A corpus that also contains the less common syntax: grouped actions, smooth and looping paths, explicit url formats,
+     * normalization and background music stops. These exercise the prediction of the parser more than the regular corpus.
+     */
+    public static List<String> generateAllSyntax(int lineCount) {
+        Random random = new Random(SEED);
+        return IntStreamEx.range(lineCount).mapToObj(index -> random.nextInt(3) == 0 ? uncommonLine(index, random) : line(index, random)).toList();
+    }
+
+    private static String line(int index, Random random) {
+        switch (random.nextInt(8)) {
+        case 0:
+            return "play effect" + index + ".wav";
+        case 1:
+            return "play effect" + index + ".wav at volume " + random.nextInt(100) + " with 1.5 seconds fade in at speakers 1,2,3,5,8";
+        case 2:
+            return "play effect" + index + ".wav at location (" + random.nextInt(1000) + "," + random.nextInt(1000) + "," + random.nextInt(1000)
+                    + ") as one speaker once save as sound" + index;
+        case 3:
+            return "play effect" + index + ".wav moving on path (0,0,0);(100,200,0);(300,200,100);(500,0,400) with speed 100 repeat 3 times";
+        case 4:
+            return "play effect" + index + ".wav circling clockwise around (500,500,500) with radius 300 starting at angle 1.5 with speed 250"
+                    + " with listener at location (500,0,500) repeat forever";
+        case 5:
+            return "stop playing sound" + random.nextInt(index + 1) + " with 2 seconds fade out";
+        case 6:
+            return "play background music music" + index + ".wav at volume 30";
+        default:
+            return "play http://example.org/audio/effect" + index + ".wav at speaker " + (random.nextInt(8) + 1) + " for 10 seconds";
+        }
+    }
+
+    private static String uncommonLine(int index, Random random) {
+        switch (random.nextInt(5)) {
+        case 0:
+            return "together play effect" + index + ".wav at speaker 1 and play effect" + index + ".wav at speaker 2"
+                    + " and play effect" + index + ".wav at all speakers as all speakers";
+        case 1:
+            return "play effect" + index + ".wav at volume 80 moving smoothly on path (0,0,0);(100,200,0);(300,200,100) with speed 50 in a loop"
+                    + " with listener at location (500,500,500) repeat forever";
+        case 2:
+            return "play http://example.org/audio/raw" + index + ".pcm with format (S-44K-2B-s-l) at volume " + random.nextInt(100) + " once";
+        case 3:
+            return "play effect" + index + ".wav circling anti-clockwise around (500,500,500) with radius 250 with speed 100 as one speaker"
+                    + " save as circle" + index;
+        default:
+            return "stop background music with 3.5 seconds fade out";
+        }
+    }
+
+}
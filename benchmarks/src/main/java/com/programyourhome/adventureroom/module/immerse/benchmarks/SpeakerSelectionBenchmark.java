@@ -0,0 +1,85 @@
+package com.programyourhome.adventureroom.module.immerse.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
+import com.programyourhome.adventureroom.module.immerse.service.RoomGeometry;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilderImpl;
+import com.programyourhome.immerse.domain.ImmerseSettings;
+
+import one.util.streamex.IntStreamEx;
+import one.util.streamex.StreamEx;
+
+/**
+ * Selecting half of the speakers of a large room as sound source: the former list lookup per speaker
+ * compared with the speaker mask, both directly and through the scenario builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SpeakerSelectionBenchmark {
+
+    @Param({ "512" })
+    public int speakerCount;
+
+    private ImmerseSettings settings;
+    private RoomGeometry roomGeometry;
+    private ScenarioBuilder builder;
+    private List<Integer> halfOfSpeakerList;
+    private SpeakerMask halfOfSpeakerMask;
+
+    @Setup
+    public void setup() {
+        this.settings = Rooms.settings(this.speakerCount);
+        this.roomGeometry = RoomGeometry.of(this.settings.getRoom());
+        this.builder = new ScenarioBuilderImpl(this.settings, this.roomGeometry);
+        this.halfOfSpeakerList = IntStreamEx.rangeClosed(1, this.speakerCount, 2).boxed().toList();
+        this.halfOfSpeakerMask = SpeakerMask.of(this.halfOfSpeakerList);
+    }
+
+    /**
+     * The volume map as it was calculated before the speaker mask.
+     */
+    @Benchmark
+    public Map<Integer, Double> listContainsVolumes() {
+        return StreamEx.of(this.settings.getRoom().getSpeakers().keySet())
+                .toMap(speakerId -> speakerId, speakerId -> this.halfOfSpeakerList.contains(speakerId) ? 1.0 : 0.0);
+    }
+
+    /**
+     * The volume map of the room geometry, calculated once per speaker mask.
+     */
+    @Benchmark
+    public Map<Integer, Double> maskVolumes() {
+        return this.roomGeometry.getVolumes(this.halfOfSpeakerMask);
+    }
+
+    @Benchmark
+    public ScenarioBuilder sourceAtSpeakerList() {
+        return this.builder.sourceAtSpeakers(this.halfOfSpeakerList);
+    }
+
+    @Benchmark
+    public ScenarioBuilder sourceAtSpeakerMask() {
+        return this.builder.sourceAtSpeakers(this.halfOfSpeakerMask);
+    }
+
+}
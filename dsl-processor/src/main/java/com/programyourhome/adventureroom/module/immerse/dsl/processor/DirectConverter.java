@@ -0,0 +1,20 @@
+package com.programyourhome.adventureroom.module.immerse.dsl.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an abstract class with parseXxxSection methods for an action rule of the grammar. At compile time a
+ * converter for the action is generated that extends the annotated class and calls the section methods directly,
+ * instead of finding them by reflection for every converted action.
+ *
+ * The annotated class should extend a converter base class with the rule context and the action as type arguments.
+ * The generated converter is named after the rule context, so PlayAudioActionContext gets a PlayAudioActionConverter.
+ * Section methods take the section context and the action, optionally followed by the adventure.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface DirectConverter {
+}
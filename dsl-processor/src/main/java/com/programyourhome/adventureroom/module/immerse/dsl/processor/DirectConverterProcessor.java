@@ -0,0 +1,152 @@
+package com.programyourhome.adventureroom.module.immerse.dsl.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the direct converters for the classes annotated with {@link DirectConverter}.
+ * The section methods are matched with the rule accessors of the ANTLR context class, in the order of the grammar rule.
+ * A section method without a matching rule is a compile error, where reflective dispatch would silently ignore it.
+ */
+@SupportedAnnotationTypes("com.programyourhome.adventureroom.module.immerse.dsl.processor.DirectConverter")
+public class DirectConverterProcessor extends AbstractProcessor {
+
+    private static final String SECTION_METHOD_PREFIX = "parse";
+    private static final String CONTEXT_SUFFIX = "Context";
+    private static final String CONVERTER_SUFFIX = "Converter";
+    private static final String ADVENTURE_CLASS = "com.programyourhome.adventureroom.model.Adventure";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(DirectConverter.class)) {
+            if (element.getKind() != ElementKind.CLASS || !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                this.error(element, "@DirectConverter can only be used on an abstract class");
+                continue;
+            }
+            try {
+                this.generateConverter((TypeElement) element);
+            } catch (IOException e) {
+                this.error(element, "Writing the direct converter failed: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void generateConverter(TypeElement sections) throws IOException {
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) sections.getSuperclass()).getTypeArguments();
+        if (typeArguments.size() != 2) {
+            this.error(sections, "@DirectConverter class should extend a converter base class with the context and action as type arguments");
+            return;
+        }
+        TypeElement contextType = (TypeElement) this.processingEnv.getTypeUtils().asElement(typeArguments.get(0));
+        TypeMirror actionType = typeArguments.get(1);
+        String contextName = contextType.getSimpleName().toString();
+        if (!contextName.endsWith(CONTEXT_SUFFIX)) {
+            this.error(sections, "Unexpected context type " + contextName + ", should be an ANTLR rule context");
+            return;
+        }
+
+        Map<String, ExecutableElement> sectionMethods = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(sections.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PUBLIC) && method.getSimpleName().toString().startsWith(SECTION_METHOD_PREFIX)) {
+                sectionMethods.put(method.getSimpleName().toString(), method);
+            }
+        }
+
+        StringBuilder body = new StringBuilder();
+        for (ExecutableElement accessor : ElementFilter.methodsIn(contextType.getEnclosedElements())) {
+            if (!accessor.getModifiers().contains(Modifier.PUBLIC) || !accessor.getParameters().isEmpty()
+                    || accessor.getReturnType().getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            String ruleName = accessor.getSimpleName().toString();
+            ExecutableElement sectionMethod = sectionMethods.remove(SECTION_METHOD_PREFIX + Character.toUpperCase(ruleName.charAt(0)) + ruleName.substring(1));
+            if (sectionMethod == null) {
+                continue;
+            }
+            String arguments = this.sectionArguments(sectionMethod, actionType);
+            if (arguments == null) {
+                return;
+            }
+            DeclaredType returnType = (DeclaredType) accessor.getReturnType();
+            if (returnType.getTypeArguments().isEmpty()) {
+                body.append("        ").append(returnType).append(' ').append(ruleName).append(" = context.").append(ruleName).append("();\n");
+                body.append("        if (").append(ruleName).append(" != null) {\n");
+                body.append("            this.").append(sectionMethod.getSimpleName()).append('(').append(ruleName).append(arguments).append(");\n");
+                body.append("        }\n");
+            } else {
+                // A rule that can occur multiple times: one call per occurrence, in script order.
+                TypeMirror elementType = returnType.getTypeArguments().get(0);
+                body.append("        for (").append(elementType).append(' ').append(ruleName).append(" : context.").append(ruleName).append("()) {\n");
+                body.append("            this.").append(sectionMethod.getSimpleName()).append('(').append(ruleName).append(arguments).append(");\n");
+                body.append("        }\n");
+            }
+        }
+        if (!sectionMethods.isEmpty()) {
+            sectionMethods.values().forEach(method -> this.error(method, "No rule in " + contextName + " matches section method " + method.getSimpleName()));
+            return;
+        }
+
+        String packageName = this.processingEnv.getElementUtils().getPackageOf(sections).getQualifiedName().toString();
+        String converterName = contextName.substring(0, contextName.length() - CONTEXT_SUFFIX.length()) + CONVERTER_SUFFIX;
+        try (PrintWriter writer = new PrintWriter(this.processingEnv.getFiler().createSourceFile(packageName + "." + converterName, sections).openWriter())) {
+            writer.println("package " + packageName + ";");
+            writer.println();
+            writer.println("// Generated by " + DirectConverterProcessor.class.getSimpleName() + " from " + sections.getSimpleName() + ", do not edit.");
+            writer.println("public class " + converterName + " extends " + sections.getSimpleName() + " {");
+            writer.println();
+            writer.println("    @Override");
+            writer.println("    public " + actionType + " convert(" + contextType.getQualifiedName() + " context, " + ADVENTURE_CLASS + " adventure) {");
+            writer.println("        " + actionType + " action = new " + actionType + "();");
+            writer.print(body);
+            writer.println("        return action;");
+            writer.println("    }");
+            writer.println();
+            writer.println("}");
+        }
+    }
+
+    /**
+     * The arguments after the section context for a call to the section method, or null if the method signature is not supported.
+     */
+    private String sectionArguments(ExecutableElement sectionMethod, TypeMirror actionType) {
+        List<? extends Element> parameters = sectionMethod.getParameters();
+        boolean actionParameter = parameters.size() >= 2
+                && this.processingEnv.getTypeUtils().isAssignable(actionType, parameters.get(1).asType());
+        boolean adventureParameter = parameters.size() == 3 && parameters.get(2).asType().toString().equals(ADVENTURE_CLASS);
+        if (!actionParameter || parameters.size() > 3 || parameters.size() == 3 && !adventureParameter) {
+            this.error(sectionMethod, "Section method should have the parameters (section context, " + actionType + "[, Adventure])");
+            return null;
+        }
+        return adventureParameter ? ", action, adventure" : ", action";
+    }
+
+    private void error(Element element, String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -1,9 +1,11 @@
 grammar ImmerseAdventureModule;
 
-action: playAudioAction | stopAudioAction | playBackgroundMusicAction | stopBackgroundMusicAction;
+action: playAudioAction | playAudioGroupAction | stopAudioAction | playBackgroundMusicAction | stopBackgroundMusicAction;
 
 playAudioAction: resourceSection volumeSection? (sourceSpeakerSection | sourceLocationSection)? listenerLocationSection? normalizeSection? playbackSection? variableSection?;
 
+playAudioGroupAction: 'together ' playAudioAction (' and ' playAudioAction)+;
+
 resourceSection: fileResource | urlResource;
 
 fileResource: 'play ' filename=FILENAME;
@@ -28,7 +30,7 @@ locationSection: fixedLocation | pathLocation | circlingLocation;
 
 fixedLocation: ' at location ' location=VECTOR_3D;
 
-pathLocation: ' moving on path ' path=(VECTOR_3D|PATH) (' with speed ' speed=(INTEGER|DOUBLE))?;
+pathLocation: (' moving on path ' | smooth=' moving smoothly on path ') path=(VECTOR_3D|PATH) (' with speed ' speed=(INTEGER|DOUBLE))? (loop=' in a loop')?;
 
 circlingLocation: ' circling' (clockwise=' clockwise' | antiClockwise=' anti-clockwise')? ' around ' center=VECTOR_3D ' with radius ' radius=(INTEGER|DOUBLE)
                   (' starting at angle ' startAngle=(INTEGER|DOUBLE))? ' with speed ' speed=(INTEGER|DOUBLE);
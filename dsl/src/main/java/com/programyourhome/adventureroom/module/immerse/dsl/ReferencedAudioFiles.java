@@ -0,0 +1,41 @@
+package com.programyourhome.adventureroom.module.immerse.dsl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.programyourhome.adventureroom.model.Adventure;
+
+/**
+ * Keeps track of the audio files referenced by the converted actions of an adventure, in script order.
+ * Used to stage audio resources before they are played.
+ */
+public class ReferencedAudioFiles {
+
+    private static final Map<Adventure, Set<String>> FILES_PER_ADVENTURE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ReferencedAudioFiles() {
+    }
+
+    public static void register(Adventure adventure, String filename) {
+        if (adventure != null) {
+            Set<String> filenames = FILES_PER_ADVENTURE.computeIfAbsent(adventure, key -> Collections.synchronizedSet(new LinkedHashSet<>()));
+            filenames.add(filename);
+        }
+    }
+
+    /**
+     * All audio files referenced by the adventure, in the order they were first encountered while converting.
+     */
+    public static List<String> getFilenames(Adventure adventure) {
+        Set<String> filenames = FILES_PER_ADVENTURE.getOrDefault(adventure, Collections.emptySet());
+        synchronized (filenames) {
+            return new ArrayList<>(filenames);
+        }
+    }
+
+}
@@ -1,16 +1,16 @@
 package com.programyourhome.adventureroom.module.immerse.dsl.converters;
 
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.antlr.v4.runtime.Token;
 
 import com.programyourhome.adventureroom.dsl.antlr.AbstractReflectiveParseTreeAntlrActionConverter;
+import com.programyourhome.adventureroom.model.Adventure;
 import com.programyourhome.adventureroom.model.util.StreamUtil;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.AllSpeakersContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.CirclingLocationContext;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.FileResourceContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.FixedLocationContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.ListenerLocationSectionContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.LocationSectionContext;
@@ -26,6 +26,8 @@ import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModu
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.UrlResourceContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.VariableSectionContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.VolumeSectionContext;
+import com.programyourhome.adventureroom.module.immerse.dsl.ReferencedAudioFiles;
+import com.programyourhome.adventureroom.module.immerse.dsl.processor.DirectConverter;
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction;
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.Circling;
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.DynamicLocation;
@@ -36,25 +38,35 @@ import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.Re
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.SoundSource;
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.UrlResource;
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.Volume;
-import com.programyourhome.adventureroom.module.immerse.model.SpeakerExternalResource;
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
 import com.programyourhome.immerse.domain.format.ByteOrder;
 import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
 import com.programyourhome.immerse.domain.format.RecordingMode;
 import com.programyourhome.immerse.domain.format.SampleRate;
 import com.programyourhome.immerse.domain.format.SampleSize;
 import com.programyourhome.immerse.domain.location.Vector3D;
-import com.programyourhome.immerse.domain.speakers.Speaker;
 
 import one.util.streamex.StreamEx;
 
-public class PlayAudioActionConverter extends AbstractReflectiveParseTreeAntlrActionConverter<PlayAudioActionContext, PlayAudioAction> {
+/**
+ * The section methods for play audio actions. The PlayAudioActionConverter that calls them is generated at compile time.
+ * The adventure is passed to the section methods instead of kept in the converter, so converters can be shared between threads.
+ */
+@DirectConverter
+public abstract class PlayAudioActionSections extends AbstractReflectiveParseTreeAntlrActionConverter<PlayAudioActionContext, PlayAudioAction> {
 
-    public void parseResourceSection(ResourceSectionContext context, PlayAudioAction action) {
+    public void parseResourceSection(ResourceSectionContext context, PlayAudioAction action, Adventure adventure) {
         action.resource = StreamUtil.getOne(
-                this.parse(context.fileResource(), fileContext -> Resource.file(this.toString(fileContext.filename))),
+                this.parse(context.fileResource(), fileResource -> this.parseFileResource(fileResource, adventure)),
                 this.parse(context.urlResource(), this::parseUrlResource));
     }
 
+    private Resource parseFileResource(FileResourceContext context, Adventure adventure) {
+        String filename = this.toString(context.filename);
+        ReferencedAudioFiles.register(adventure, filename);
+        return Resource.file(filename);
+    }
+
     private Resource parseUrlResource(UrlResourceContext context) {
         UrlResource urlResource = new UrlResource();
         urlResource.urlString = this.toString(context.urlString);
@@ -79,22 +91,23 @@ public class PlayAudioActionConverter extends AbstractReflectiveParseTreeAntlrAc
     }
 
     public void parseSourceSpeakerSection(SourceSpeakerSectionContext context, PlayAudioAction action) {
-        action.soundSource = Optional.of(SoundSource.speakerIds(StreamUtil.getOne(
+        action.soundSource = Optional.of(SoundSource.speakers(StreamUtil.getOne(
                 this.parse(context.singleSpeaker(), this::parseSingleSpeaker),
                 this.parse(context.multipleSpeakers(), this::parseMultipleSpeakers),
                 this.parse(context.allSpeakers(), this::parseAllSpeakers))));
     }
 
-    private Collection<Integer> parseSingleSpeaker(SingleSpeakerContext context) {
-        return Arrays.asList(this.toInt(context.speakerId));
+    private SpeakerMask parseSingleSpeaker(SingleSpeakerContext context) {
+        return SpeakerMask.of(this.toInt(context.speakerId));
     }
 
-    private Collection<Integer> parseMultipleSpeakers(MultipleSpeakersContext context) {
-        return StreamEx.of(context.speakerIds.getText().split(",")).map(Integer::valueOf).toList();
+    private SpeakerMask parseMultipleSpeakers(MultipleSpeakersContext context) {
+        return SpeakerMask.of(StreamEx.of(context.speakerIds.getText().split(",")).mapToInt(Integer::parseInt).toArray());
     }
 
-    private Collection<Integer> parseAllSpeakers(AllSpeakersContext context) {
-        return StreamEx.of(this.getAdventure().getExternalResources(SpeakerExternalResource.class)).map(Speaker::getId).toList();
+    private SpeakerMask parseAllSpeakers(AllSpeakersContext context) {
+        // Resolved against the speakers of the room when building the scenario, so no adventure is needed here.
+        return SpeakerMask.all();
     }
 
     public void parseSourceLocationSection(SourceLocationSectionContext context, PlayAudioAction action) {
@@ -121,6 +134,8 @@ public class PlayAudioActionConverter extends AbstractReflectiveParseTreeAntlrAc
         String[] locationStrings = context.path.getText().split(";");
         path.waypoints = StreamEx.of(locationStrings).map(this::parseVector3D).toList();
         path.speed = this.toDouble(context.speed);
+        path.smooth = context.smooth != null;
+        path.loop = context.loop != null;
         return DynamicLocation.path(path);
     }
 
@@ -0,0 +1,23 @@
+package com.programyourhome.adventureroom.module.immerse.dsl.converters;
+
+import com.programyourhome.adventureroom.dsl.antlr.AntlrActionConverter;
+import com.programyourhome.adventureroom.model.Adventure;
+import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.PlayAudioGroupActionContext;
+import com.programyourhome.adventureroom.module.immerse.model.PlayAudioGroupAction;
+
+import one.util.streamex.StreamEx;
+
+public class PlayAudioGroupActionConverter implements AntlrActionConverter<PlayAudioGroupActionContext, PlayAudioGroupAction> {
+
+    private final PlayAudioActionConverter playAudioActionConverter = new PlayAudioActionConverter();
+
+    @Override
+    public PlayAudioGroupAction convert(PlayAudioGroupActionContext context, Adventure adventure) {
+        PlayAudioGroupAction action = new PlayAudioGroupAction();
+        action.actions = StreamEx.of(context.playAudioAction())
+                .map(playAudioActionContext -> this.playAudioActionConverter.convert(playAudioActionContext, adventure))
+                .toList();
+        return action;
+    }
+
+}
@@ -3,21 +3,30 @@ package com.programyourhome.adventureroom.module.immerse.dsl.converters;
 import java.util.Optional;
 
 import com.programyourhome.adventureroom.dsl.antlr.AbstractReflectiveParseTreeAntlrActionConverter;
+import com.programyourhome.adventureroom.model.Adventure;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.BackgroundResourceSectionContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.PlayBackgroundMusicActionContext;
 import com.programyourhome.adventureroom.module.immerse.dsl.ImmerseAdventureModuleParser.VolumeSectionContext;
+import com.programyourhome.adventureroom.module.immerse.dsl.ReferencedAudioFiles;
+import com.programyourhome.adventureroom.module.immerse.dsl.processor.DirectConverter;
 import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.Volume;
 import com.programyourhome.adventureroom.module.immerse.model.PlayBackgroundMusicAction;
 
+/**
+ * The section methods for play background music actions. The PlayBackgroundMusicActionConverter that calls them is generated at compile time.
+ * The adventure is passed to the section methods instead of kept in the converter, so converters can be shared between threads.
+ */
 //TODO: merge with play audio action!!
-public class PlayBackgroundMusicActionConverter
+@DirectConverter
+public abstract class PlayBackgroundMusicActionSections
         extends AbstractReflectiveParseTreeAntlrActionConverter<PlayBackgroundMusicActionContext, PlayBackgroundMusicAction> {
 
     // TODO: make parameter for this
     public static final double DEFAULT_BACKGROUND_MUSIC_VOLUME = 0.3;
 
-    public void parseBackgroundResourceSection(BackgroundResourceSectionContext context, PlayBackgroundMusicAction action) {
+    public void parseBackgroundResourceSection(BackgroundResourceSectionContext context, PlayBackgroundMusicAction action, Adventure adventure) {
         action.filename = this.toString(context.filename);
+        ReferencedAudioFiles.register(adventure, action.filename);
     }
 
     public void parseVolumeSection(VolumeSectionContext context, PlayBackgroundMusicAction action) {
@@ -1,6 +1,5 @@
 package com.programyourhome.adventureroom.module.immerse.model;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,19 +57,19 @@ public class PlayAudioAction implements Action {
     }
 
     public static class SoundSource extends Either {
-        public static SoundSource speakerIds(Collection<Integer> speakerIds) {
-            return new SoundSource(Optional.of(speakerIds), Optional.empty());
+        public static SoundSource speakers(SpeakerMask speakers) {
+            return new SoundSource(Optional.of(speakers), Optional.empty());
         }
 
         public static SoundSource dynamicLocation(DynamicLocation dynamicLocation) {
             return new SoundSource(Optional.empty(), Optional.of(dynamicLocation));
         }
 
-        public SoundSource(Optional<Collection<Integer>> speakerIds, Optional<DynamicLocation> dynamicLocation) {
-            super(speakerIds, dynamicLocation);
+        public SoundSource(Optional<SpeakerMask> speakers, Optional<DynamicLocation> dynamicLocation) {
+            super(speakers, dynamicLocation);
         }
 
-        public Optional<Collection<Integer>> getSpeakerIds() {
+        public Optional<SpeakerMask> getSpeakers() {
             return this.getItem(1);
         }
 
@@ -112,6 +111,8 @@ public class PlayAudioAction implements Action {
     public static class Path {
         public List<Vector3D> waypoints;
         public double speed;
+        public boolean smooth;
+        public boolean loop;
     }
 
     public static class Circling {
@@ -0,0 +1,14 @@
+package com.programyourhome.adventureroom.module.immerse.model;
+
+import java.util.List;
+
+import com.programyourhome.adventureroom.model.script.action.Action;
+
+/**
+ * Multiple audio actions that should start at the same moment, like all sounds of one cue.
+ */
+public class PlayAudioGroupAction implements Action {
+
+    public List<PlayAudioAction> actions;
+
+}
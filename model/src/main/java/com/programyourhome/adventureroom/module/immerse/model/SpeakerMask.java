@@ -0,0 +1,87 @@
+package com.programyourhome.adventureroom.module.immerse.model;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable selection of speakers, as a bit set over speaker ids. Checking whether a speaker is selected
+ * is constant time and needs no boxing, also for rooms with hundreds of speakers.
+ * The mask of all speakers does not list ids, so it does not depend on the room it is used for.
+ * Speakers are selected by id rather than by their index in the room, because actions are converted before the
+ * room is known; RoomGeometry maps a mask to the volumes of the room.
+ */
+public class SpeakerMask {
+
+    private static final SpeakerMask ALL = new SpeakerMask(new BitSet(), true);
+
+    private final BitSet speakerIds;
+    private final boolean all;
+
+    private SpeakerMask(BitSet speakerIds, boolean all) {
+        this.speakerIds = speakerIds;
+        this.all = all;
+    }
+
+    public static SpeakerMask all() {
+        return ALL;
+    }
+
+    public static SpeakerMask of(int... speakerIds) {
+        BitSet bits = new BitSet();
+        for (int speakerId : speakerIds) {
+            bits.set(checkId(speakerId));
+        }
+        return new SpeakerMask(bits, false);
+    }
+
+    public static SpeakerMask of(Collection<Integer> speakerIds) {
+        BitSet bits = new BitSet();
+        for (int speakerId : speakerIds) {
+            bits.set(checkId(speakerId));
+        }
+        return new SpeakerMask(bits, false);
+    }
+
+    public boolean isAll() {
+        return this.all;
+    }
+
+    public boolean contains(int speakerId) {
+        return this.all || speakerId >= 0 && this.speakerIds.get(speakerId);
+    }
+
+    /**
+     * The selected speaker ids, in ascending order. Empty for the mask of all speakers.
+     */
+    public IntStream speakerIds() {
+        return this.speakerIds.stream();
+    }
+
+    private static int checkId(int speakerId) {
+        if (speakerId < 0) {
+            throw new IllegalArgumentException("Speaker id cannot be negative: " + speakerId);
+        }
+        return speakerId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SpeakerMask)) {
+            return false;
+        }
+        SpeakerMask otherMask = (SpeakerMask) other;
+        return this.all == otherMask.all && this.speakerIds.equals(otherMask.speakerIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.all ? -1 : this.speakerIds.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.all ? "all speakers" : "speakers " + this.speakerIds;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.programyourhome.adventureroom.model.execution.ExecutionContext;
+import com.programyourhome.adventureroom.model.toolbox.ContentCategory;
+import com.programyourhome.adventureroom.model.toolbox.DataStream;
+import com.programyourhome.adventureroom.module.immerse.metrics.Counter;
+import com.programyourhome.adventureroom.module.immerse.metrics.MetricsRegistry;
+
+/**
+ * Cache of exposed audio content urls, so a sound that is played again does not have to be read and exposed again.
+ * The cache is size bounded, least recently used entries are evicted first.
+ * If the content directory is known, entries are invalidated when the file changes (last modified time or size).
+ */
+public class AudioContentCache {
+
+    private final int maxSize;
+    private final Optional<Path> contentDirectory;
+    private final Map<String, CachedContent> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public AudioContentCache(int maxSize, Optional<Path> contentDirectory, MetricsRegistry metrics) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1, not " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.contentDirectory = contentDirectory;
+        this.entries = new LinkedHashMap<String, CachedContent>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedContent> eldest) {
+                return this.size() > AudioContentCache.this.maxSize;
+            }
+        };
+        this.hits = metrics.counter("content.cache.hits");
+        this.misses = metrics.counter("content.cache.misses");
+    }
+
+    /**
+     * The url to the audio content with the given filename, exposing the content only if not cached (or changed).
+     */
+    public String getUrl(String filename, ExecutionContext context) {
+        String version = this.getVersion(filename);
+        synchronized (this.entries) {
+            CachedContent cachedContent = this.entries.get(filename);
+            if (cachedContent != null && cachedContent.version.equals(version)) {
+                this.hits.increment();
+                return cachedContent.url;
+            }
+        }
+        this.misses.increment();
+        // Expose outside of the lock, so storage I/O for one file does not block hits for others.
+        DataStream dataStream = context.getToolbox().getContentService().getContent(ContentCategory.AUDIO, filename);
+        URL url = context.getToolbox().getDataStreamToUrl().exposeDataStream(dataStream);
+        synchronized (this.entries) {
+            this.entries.put(filename, new CachedContent(url.toString(), version));
+        }
+        return url.toString();
+    }
+
+    public boolean isCached(String filename) {
+        synchronized (this.entries) {
+            return this.entries.containsKey(filename);
+        }
+    }
+
+    public void invalidate(String filename) {
+        synchronized (this.entries) {
+            this.entries.remove(filename);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * The version of the audio file: its modification time and size in the content directory,
+     * or empty if the file is not served from the content directory and changes cannot be detected.
+     */
+    public String getVersion(String filename) {
+        if (!this.contentDirectory.isPresent()) {
+            return "";
+        }
+        Optional<Path> contentFile = ContentFiles.resolve(this.contentDirectory.get(), filename).filter(Files::exists);
+        if (!contentFile.isPresent()) {
+            // Not served from the content directory, so changes cannot be detected.
+            return "";
+        }
+        Path file = contentFile.get();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() + "-" + attributes.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Exception during reading attributes of audio file " + file, e);
+        }
+    }
+
+    private static class CachedContent {
+        private final String url;
+        private final String version;
+
+        public CachedContent(String url, String version) {
+            this.url = url;
+            this.version = version;
+        }
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded HTTP server that serves local audio files to the Immerse server. The file content is sent with
+ * FileChannel.transferTo, so the kernel copies it to the socket directly, without passing through the heap.
+ * Supports keep-alive connections and single byte range requests, so looping tracks and repeated effects
+ * can be requested again cheaply. A file can be served from an offset, for instance to skip the header of
+ * a wave file and serve the raw PCM data.
+ */
+public class AudioFileServer {
+
+    private static final String CONTEXT_PATH = "/audio/";
+    private static final int MAX_HEADER_SIZE = 8 * 1024;
+    private static final int KEEP_ALIVE_TIMEOUT_MILLIS = 30_000;
+    // Every open connection holds a thread, so at most this many connections are served at once (and as many wait).
+    private static final int MAX_CONNECTIONS = 32;
+    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private final String host;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService acceptor;
+    private final ThreadPoolExecutor connectionExecutor;
+    private final Map<String, ServedFile> servedFiles;
+    private final Map<ServedFile, String> servedFileIds;
+    private final AtomicInteger nextId;
+
+    public AudioFileServer(String host, int port) {
+        this.host = host;
+        try {
+            this.serverChannel = ServerSocketChannel.open();
+            // Only listen on the address the Immerse server uses, not on all interfaces.
+            this.serverChannel.bind(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Exception during creating audio server on " + host + ":" + port, e);
+        }
+        this.acceptor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "immerse-audio-server-acceptor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connectionExecutor = new ThreadPoolExecutor(MAX_CONNECTIONS, MAX_CONNECTIONS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_CONNECTIONS), runnable -> {
+                    Thread thread = new Thread(runnable, "immerse-audio-server");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.connectionExecutor.allowCoreThreadTimeOut(true);
+        this.servedFiles = new ConcurrentHashMap<>();
+        this.servedFileIds = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger();
+    }
+
+    public void start() {
+        this.acceptor.execute(this::acceptConnections);
+    }
+
+    public void stop() {
+        try {
+            this.serverChannel.close();
+        } catch (IOException e) {
+            System.out.println("Exception during closing audio server: " + e.getMessage());
+        }
+        this.acceptor.shutdownNow();
+        this.connectionExecutor.shutdownNow();
+    }
+
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * The url to the content of the file, starting at the given offset.
+     */
+    public String getUrl(Path file, long offset) {
+        ServedFile servedFile = new ServedFile(file.toAbsolutePath(), offset);
+        String id = this.servedFileIds.computeIfAbsent(servedFile, key -> {
+            String newId = Integer.toString(this.nextId.incrementAndGet());
+            this.servedFiles.put(newId, key);
+            return newId;
+        });
+        return "http://" + this.host + ":" + this.getPort() + CONTEXT_PATH + id;
+    }
+
+    private void acceptConnections() {
+        while (this.serverChannel.isOpen()) {
+            try {
+                SocketChannel connection = this.serverChannel.accept();
+                try {
+                    this.connectionExecutor.execute(() -> this.serve(connection));
+                } catch (RejectedExecutionException e) {
+                    System.out.println("Audio server is too busy, closing connection");
+                    connection.close();
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.out.println("Exception during accepting audio server connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        try (SocketChannel channel = connection) {
+            channel.socket().setSoTimeout(KEEP_ALIVE_TIMEOUT_MILLIS);
+            channel.socket().setTcpNoDelay(true);
+            // Reading through the socket stream honors the timeout, writing goes through the channel for transferTo.
+            InputStream inputStream = new BufferedInputStream(channel.socket().getInputStream());
+            boolean keepAlive = true;
+            while (keepAlive) {
+                Request request = Request.read(inputStream);
+                if (request == null) {
+                    return;
+                }
+                keepAlive = request.isKeepAlive();
+                this.respond(request, channel, keepAlive);
+            }
+        } catch (SocketTimeoutException e) {
+            // Idle keep-alive connection, just close it.
+        } catch (IOException e) {
+            // The client went away or sent garbage, nothing to do but close the connection.
+        }
+    }
+
+    private void respond(Request request, SocketChannel channel, boolean keepAlive) throws IOException {
+        ServedFile servedFile = request.path.startsWith(CONTEXT_PATH) ? this.servedFiles.get(request.path.substring(CONTEXT_PATH.length())) : null;
+        if (!request.method.equals("GET") && !request.method.equals("HEAD")) {
+            this.writeHeaders(channel, "405 Method Not Allowed", keepAlive, 0, null);
+            return;
+        }
+        if (servedFile == null) {
+            this.writeHeaders(channel, "404 Not Found", keepAlive, 0, null);
+            return;
+        }
+        try (FileChannel fileChannel = FileChannel.open(servedFile.path, StandardOpenOption.READ)) {
+            long length = Math.max(0, fileChannel.size() - servedFile.offset);
+            long start = 0;
+            long end = length - 1;
+            String status = "200 OK";
+            String contentRange = null;
+            String range = request.headers.get("range");
+            if (range != null) {
+                Matcher matcher = RANGE_PATTERN.matcher(range.trim());
+                if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                    if (matcher.group(1).isEmpty()) {
+                        // Suffix range: the last n bytes.
+                        start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+                    } else {
+                        start = Long.parseLong(matcher.group(1));
+                        end = matcher.group(2).isEmpty() ? end : Math.min(end, Long.parseLong(matcher.group(2)));
+                    }
+                    if (start > end) {
+                        this.writeHeaders(channel, "416 Range Not Satisfiable", keepAlive, 0, "bytes */" + length);
+                        return;
+                    }
+                    status = "206 Partial Content";
+                    contentRange = "bytes " + start + "-" + end + "/" + length;
+                }
+                // Ranges in other formats (like multiple ranges) are ignored: the whole file is sent.
+            }
+            long count = end - start + 1;
+            this.writeHeaders(channel, status, keepAlive, count, contentRange);
+            if (request.method.equals("GET")) {
+                long position = servedFile.offset + start;
+                long remaining = count;
+                while (remaining > 0) {
+                    long transferred = fileChannel.transferTo(position, remaining, channel);
+                    if (transferred <= 0) {
+                        throw new IOException("File shrunk while sending: " + servedFile.path);
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            this.writeHeaders(channel, "404 Not Found", keepAlive, 0, null);
+        }
+    }
+
+    private void writeHeaders(SocketChannel channel, String status, boolean keepAlive, long contentLength, String contentRange) throws IOException {
+        StringBuilder headers = new StringBuilder()
+                .append("HTTP/1.1 ").append(status).append("\r\n")
+                .append("Content-Type: application/octet-stream\r\n")
+                .append("Accept-Ranges: bytes\r\n")
+                .append("Content-Length: ").append(contentLength).append("\r\n")
+                .append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n");
+        if (contentRange != null) {
+            headers.append("Content-Range: ").append(contentRange).append("\r\n");
+        }
+        headers.append("\r\n");
+        ByteBuffer buffer = StandardCharsets.ISO_8859_1.encode(headers.toString());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static class ServedFile {
+        private final Path path;
+        private final long offset;
+
+        public ServedFile(Path path, long offset) {
+            this.path = path;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ServedFile)) {
+                return false;
+            }
+            ServedFile otherFile = (ServedFile) other;
+            return this.path.equals(otherFile.path) && this.offset == otherFile.offset;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.path.hashCode() * 31 + Long.hashCode(this.offset);
+        }
+    }
+
+    private static class Request {
+        private final String method;
+        private final String path;
+        private final String version;
+        private final Map<String, String> headers;
+
+        private Request(String method, String path, String version, Map<String, String> headers) {
+            this.method = method;
+            this.path = path;
+            this.version = version;
+            this.headers = headers;
+        }
+
+        private boolean isKeepAlive() {
+            String connection = this.headers.getOrDefault("connection", "").toLowerCase(Locale.ROOT);
+            if (this.version.equals("HTTP/1.0")) {
+                return connection.equals("keep-alive");
+            }
+            return !connection.equals("close");
+        }
+
+        /**
+         * Read the next request from the connection, or null if the client closed the connection.
+         */
+        private static Request read(InputStream inputStream) throws IOException {
+            String requestLine = readLine(inputStream);
+            if (requestLine == null) {
+                return null;
+            }
+            String[] parts = requestLine.split(" ");
+            if (parts.length != 3) {
+                throw new IOException("Invalid request line: " + requestLine);
+            }
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while ((line = readLine(inputStream)) != null && !line.isEmpty()) {
+                int separator = line.indexOf(':');
+                if (separator > 0) {
+                    headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ROOT), line.substring(separator + 1).trim());
+                }
+            }
+            // Ignore the query string, only the path identifies the file.
+            String path = parts[1].split("\\?", 2)[0];
+            return new Request(parts[0], path, parts[2], headers);
+        }
+
+        private static String readLine(InputStream inputStream) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int read;
+            while ((read = inputStream.read()) != -1 && read != '\n') {
+                if (line.size() >= MAX_HEADER_SIZE) {
+                    throw new IOException("Request header too large");
+                }
+                line.write(read);
+            }
+            if (read == -1 && line.size() == 0) {
+                return null;
+            }
+            String text = new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+            return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+        }
+    }
+
+}
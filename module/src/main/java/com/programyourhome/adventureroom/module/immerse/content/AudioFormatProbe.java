@@ -0,0 +1,158 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioFormat.Encoding;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
+import com.programyourhome.immerse.domain.format.ByteOrder;
+import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
+import com.programyourhome.immerse.domain.format.RecordingMode;
+import com.programyourhome.immerse.domain.format.SampleRate;
+import com.programyourhome.immerse.domain.format.SampleSize;
+
+/**
+ * Detects the container type and PCM format of audio resources by reading their header once.
+ * The results are cached per url, so repeated plays do not read the header again.
+ */
+public class AudioFormatProbe {
+
+    // Large enough for the headers of all supported containers, including metadata chunks before the audio data.
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final Map<String, ProbedAudio> probedAudio;
+
+    public AudioFormatProbe(boolean enabled) {
+        this.enabled = enabled;
+        this.probedAudio = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Set the url as the audio resource of the builder, with the detected file type.
+     * Falls back to wave if the type cannot be detected or probing is disabled.
+     */
+    public void setResource(ScenarioBuilder builder, String url) {
+        builder.urlWithType(url, this.probe(url).getFileType().orElse(AudioFileType.WAVE));
+    }
+
+    public ProbedAudio probe(String url) {
+        if (!this.enabled) {
+            return ProbedAudio.unknown();
+        }
+        return this.probedAudio.computeIfAbsent(url, this::readHeader);
+    }
+
+    public void invalidate(String url) {
+        this.probedAudio.remove(url);
+    }
+
+    private ProbedAudio readHeader(String url) {
+        try (InputStream inputStream = new URL(url).openStream()) {
+            return probe(readAtMost(inputStream, MAX_HEADER_SIZE));
+        } catch (IOException e) {
+            System.out.println("Could not read audio header of " + url + ": " + e.getMessage());
+            return ProbedAudio.unknown();
+        }
+    }
+
+    static ProbedAudio probe(byte[] header) {
+        AudioFileFormat fileFormat;
+        try {
+            fileFormat = AudioSystem.getAudioFileFormat(new ByteArrayInputStream(header));
+        } catch (UnsupportedAudioFileException | IOException e) {
+            return ProbedAudio.unknown();
+        }
+        return new ProbedAudio(toFileType(fileFormat.getType()), toImmerseFormat(fileFormat.getFormat()), dataOffset(header, fileFormat.getType()));
+    }
+
+    private static Optional<AudioFileType> toFileType(AudioFileFormat.Type type) {
+        try {
+            return Optional.of(AudioFileType.valueOf(type.toString().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<ImmerseAudioFormat> toImmerseFormat(AudioFormat format) {
+        boolean signed = format.getEncoding().equals(Encoding.PCM_SIGNED);
+        if (!signed && !format.getEncoding().equals(Encoding.PCM_UNSIGNED)) {
+            return Optional.empty();
+        }
+        if (format.getChannels() < 1 || format.getChannels() > 2 || (format.getSampleSizeInBits() != 8 && format.getSampleSizeInBits() != 16)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ImmerseAudioFormat.builder()
+                    .recordingMode(format.getChannels() == 2 ? RecordingMode.STEREO : RecordingMode.MONO)
+                    .sampleRate(SampleRate.valueOf("RATE_" + Math.round(format.getSampleRate() / 1000)))
+                    .sampleSize(format.getSampleSizeInBits() == 8 ? SampleSize.ONE_BYTE : SampleSize.TWO_BYTES)
+                    .setSigned(signed)
+                    .byteOrder(format.isBigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN)
+                    .buildForInput());
+        } catch (IllegalArgumentException e) {
+            // Sample rate not supported by Immerse.
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The offset of the first audio byte, found by walking the chunks of the container header. -1 if not found.
+     */
+    private static long dataOffset(byte[] header, AudioFileFormat.Type type) {
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        if (type == AudioFileFormat.Type.WAVE) {
+            buffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            return findChunk(buffer, 12, "data", 0);
+        } else if (type == AudioFileFormat.Type.AIFF || type == AudioFileFormat.Type.AIFC) {
+            long soundChunk = findChunk(buffer, 12, "SSND", 8);
+            // The sound data chunk starts with an extra offset field and a block size field.
+            return soundChunk < 0 ? -1 : soundChunk + buffer.getInt((int) soundChunk - 8);
+        } else if (type == AudioFileFormat.Type.AU) {
+            return header.length >= 8 ? Integer.toUnsignedLong(buffer.getInt(4)) : -1;
+        }
+        return -1;
+    }
+
+    private static long findChunk(ByteBuffer buffer, int position, String chunkId, int extraHeaderSize) {
+        while (position + 8 + extraHeaderSize <= buffer.limit()) {
+            String id = new String(Arrays.copyOfRange(buffer.array(), position, position + 4), StandardCharsets.US_ASCII);
+            long size = Integer.toUnsignedLong(buffer.getInt(position + 4));
+            if (id.equals(chunkId)) {
+                return position + 8 + extraHeaderSize;
+            }
+            // Chunks are padded to an even size.
+            long nextPosition = position + 8 + size + (size % 2);
+            if (nextPosition > Integer.MAX_VALUE) {
+                return -1;
+            }
+            position = (int) nextPosition;
+        }
+        return -1;
+    }
+
+    private static byte[] readAtMost(InputStream inputStream, int maxBytes) throws IOException {
+        byte[] bytes = new byte[maxBytes];
+        int totalRead = 0;
+        int read;
+        while (totalRead < maxBytes && (read = inputStream.read(bytes, totalRead, maxBytes - totalRead)) != -1) {
+            totalRead += read;
+        }
+        return Arrays.copyOf(bytes, totalRead);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.programyourhome.adventureroom.model.execution.ExecutionContext;
+
+import one.util.streamex.EntryStream;
+import one.util.streamex.StreamEx;
+
+/**
+ * Stages upcoming audio files in the content cache in the background and reads their headers, so the first play
+ * of a file does not pay for content lookup, exposure and format detection on the critical path.
+ */
+public class AudioPrefetcher {
+
+    private final AudioContentCache cache;
+    private final AudioFormatProbe probe;
+    private final int lookahead;
+    private final ExecutorService executor;
+    private volatile ScriptOrder scriptOrder;
+
+    public AudioPrefetcher(AudioContentCache cache, AudioFormatProbe probe, int lookahead) {
+        this.cache = cache;
+        this.probe = probe;
+        this.lookahead = lookahead;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "immerse-audio-prefetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stage the files of the adventure, in script order, as far as they fit in the cache.
+     * The given filenames are also the sequence used for the lookahead.
+     */
+    public void prefetchAll(List<String> filenames, ExecutionContext context) {
+        this.scriptOrder = new ScriptOrder(filenames);
+        this.stage(StreamEx.of(filenames).limit(this.cache.getMaxSize()).toList(), context);
+    }
+
+    /**
+     * Stage the files that come after the given file in script order.
+     */
+    public void prefetchAfter(String filename, ExecutionContext context) {
+        ScriptOrder order = this.scriptOrder;
+        int index = order == null ? -1 : order.advanceTo(filename);
+        if (index >= 0 && this.lookahead > 0) {
+            this.stage(order.filenames.subList(index + 1, Math.min(order.filenames.size(), index + 1 + this.lookahead)), context);
+        }
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * The filenames in script order with the positions of every filename, so finding the position of a played file
+     * does not scan the list. A file that occurs more than once resolves to its first occurrence after the position
+     * of the previously played file, or its first occurrence if there is none (the script started over).
+     */
+    private static class ScriptOrder {
+        private final List<String> filenames;
+        private final Map<String, List<Integer>> positions;
+        private volatile int currentPosition;
+
+        public ScriptOrder(List<String> filenames) {
+            this.filenames = filenames;
+            this.positions = EntryStream.of(filenames).invert().grouping();
+            this.currentPosition = -1;
+        }
+
+        public int advanceTo(String filename) {
+            List<Integer> filenamePositions = this.positions.get(filename);
+            if (filenamePositions == null) {
+                return -1;
+            }
+            int insertionPoint = Collections.binarySearch(filenamePositions, this.currentPosition + 1);
+            int nextIndex = insertionPoint >= 0 ? insertionPoint : -insertionPoint - 1;
+            int position = filenamePositions.get(nextIndex < filenamePositions.size() ? nextIndex : 0);
+            this.currentPosition = position;
+            return position;
+        }
+    }
+
+    private void stage(List<String> filenames, ExecutionContext context) {
+        List<String> uncachedFilenames = StreamEx.of(filenames).remove(this.cache::isCached).toList();
+        if (!uncachedFilenames.isEmpty()) {
+            this.executor.execute(() -> uncachedFilenames.forEach(filename -> {
+                try {
+                    this.probe.probe(this.cache.getUrl(filename, context));
+                } catch (RuntimeException e) {
+                    // Prefetching is best effort, the play action itself will report the problem.
+                    System.out.println("Prefetching audio file " + filename + " failed: " + e.getMessage());
+                }
+            }));
+        }
+    }
+
+}
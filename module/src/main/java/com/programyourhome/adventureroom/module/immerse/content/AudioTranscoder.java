@@ -0,0 +1,175 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
+
+/**
+ * Converts audio files to the output format of the mixer ahead of time, so the mixer does not have to
+ * resample and convert them during playback. The results are raw PCM files in an on-disk cache, named
+ * after the hash of the source content and the output format, so unchanged files are converted only once.
+ * Before reading a source at all, its url and version (modification time and size) are checked against the
+ * sources converted earlier, so an unchanged source is not copied and hashed on every start either.
+ */
+public class AudioTranscoder {
+
+    private static final String EXTENSION = ".pcm";
+    private static final String SOURCE_EXTENSION = ".source";
+
+    private final Path cacheDirectory;
+    private final ImmerseAudioFormat outputFormat;
+    private final Map<String, Path> transcodedFiles;
+    // Converted files per source url and version, for the sources converted by this transcoder.
+    private final Map<String, Path> transcodedSources;
+
+    public AudioTranscoder(Path cacheDirectory, ImmerseAudioFormat outputFormat) {
+        this.cacheDirectory = cacheDirectory;
+        this.outputFormat = outputFormat;
+        this.transcodedFiles = new ConcurrentHashMap<>();
+        this.transcodedSources = new ConcurrentHashMap<>();
+        try {
+            Files.createDirectories(cacheDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Exception during creating transcoding cache directory " + cacheDirectory, e);
+        }
+    }
+
+    /**
+     * Convert the audio at the given url, unless a conversion of the same content is already in the cache.
+     * Returns the converted raw PCM file, in the output format. The source version is empty if it is not known,
+     * then only a source converted by this transcoder with the same url is recognized without reading it.
+     */
+    public Path transcode(String filename, String sourceUrl, String sourceVersion) {
+        try {
+            Optional<Path> knownTarget = this.findTranscodedSource(filename, sourceUrl, sourceVersion);
+            if (knownTarget.isPresent()) {
+                this.transcodedFiles.put(filename, knownTarget.get());
+                return knownTarget.get();
+            }
+            Path source = Files.createTempFile(this.cacheDirectory, "source", ".tmp");
+            try {
+                String hash = this.copyAndHash(sourceUrl, source);
+                Path target = this.cacheDirectory.resolve(hash + EXTENSION);
+                if (!Files.exists(target)) {
+                    this.convert(source, target);
+                }
+                this.rememberTranscodedSource(filename, sourceUrl, sourceVersion, target);
+                this.transcodedFiles.put(filename, target);
+                return target;
+            } finally {
+                Files.deleteIfExists(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Exception during transcoding audio file " + filename, e);
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            throw new IllegalStateException("Audio file " + filename + " cannot be converted to the output format", e);
+        }
+    }
+
+    public Optional<Path> getTranscodedFile(String filename) {
+        return Optional.ofNullable(this.transcodedFiles.get(filename));
+    }
+
+    public Path getCacheDirectory() {
+        return this.cacheDirectory;
+    }
+
+    public ImmerseAudioFormat getOutputFormat() {
+        return this.outputFormat;
+    }
+
+    private Optional<Path> findTranscodedSource(String filename, String sourceUrl, String sourceVersion) throws IOException {
+        Path target = this.transcodedSources.get(sourceUrl + "\n" + sourceVersion);
+        if (target == null && !sourceVersion.isEmpty()) {
+            // A known version identifies the content across restarts, when the url of the source may differ.
+            Path sourceFile = this.getSourceFile(filename, sourceVersion);
+            if (Files.exists(sourceFile)) {
+                target = this.cacheDirectory.resolve(new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8));
+            }
+        }
+        return Optional.ofNullable(target).filter(Files::exists);
+    }
+
+    private void rememberTranscodedSource(String filename, String sourceUrl, String sourceVersion, Path target) throws IOException {
+        this.transcodedSources.put(sourceUrl + "\n" + sourceVersion, target);
+        if (!sourceVersion.isEmpty()) {
+            Path temporarySourceFile = Files.createTempFile(this.cacheDirectory, "source", ".tmp");
+            try {
+                Files.write(temporarySourceFile, target.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                Files.move(temporarySourceFile, this.getSourceFile(filename, sourceVersion),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporarySourceFile);
+            }
+        }
+    }
+
+    /**
+     * The file with the name of the converted file for a version of a source file, in the output format.
+     */
+    private Path getSourceFile(String filename, String sourceVersion) {
+        MessageDigest digest = this.newDigest();
+        digest.update(this.outputFormat.toJavaAudioFormat().toString().getBytes(StandardCharsets.UTF_8));
+        digest.update(("\n" + filename + "\n" + sourceVersion).getBytes(StandardCharsets.UTF_8));
+        return this.cacheDirectory.resolve(toHex(digest.digest()) + SOURCE_EXTENSION);
+    }
+
+    private String copyAndHash(String sourceUrl, Path source) throws IOException {
+        MessageDigest digest = this.newDigest();
+        // The output format is part of the key, so a changed output format does not use stale conversions.
+        digest.update(this.outputFormat.toJavaAudioFormat().toString().getBytes(StandardCharsets.UTF_8));
+        try (InputStream inputStream = new DigestInputStream(new URL(sourceUrl).openStream(), digest)) {
+            Files.copy(inputStream, source, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return toHex(digest.digest());
+    }
+
+    private void convert(Path source, Path target) throws IOException, UnsupportedAudioFileException {
+        AudioFormat targetFormat = this.outputFormat.toJavaAudioFormat();
+        Path temporaryTarget = Files.createTempFile(this.cacheDirectory, "target", ".tmp");
+        try (AudioInputStream sourceStream = AudioSystem.getAudioInputStream(source.toFile());
+                AudioInputStream targetStream = AudioSystem.getAudioInputStream(targetFormat, sourceStream)) {
+            Files.copy(targetStream, temporaryTarget, StandardCopyOption.REPLACE_EXISTING);
+            // Only complete conversions end up in the cache, also when running concurrently. A target written in the
+            // meantime by a concurrent conversion of the same content is identical, so replacing it is fine.
+            Files.move(temporaryTarget, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryTarget);
+        }
+    }
+
+    private static String toHex(byte[] hashBytes) {
+        StringBuilder hash = new StringBuilder();
+        for (byte hashByte : hashBytes) {
+            hash.append(String.format("%02x", hashByte));
+        }
+        return hash.toString();
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 should always be available", e);
+        }
+    }
+
+}
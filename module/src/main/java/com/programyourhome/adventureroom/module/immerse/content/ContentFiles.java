@@ -0,0 +1,30 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Resolving audio filenames from scripts against the content directory.
+ */
+public class ContentFiles {
+
+    private ContentFiles() {
+    }
+
+    /**
+     * The file in the content directory with the given name. Empty if the name is not a valid path or points
+     * outside the content directory (for instance with '..' or as an absolute path), so a script can never
+     * make the module read or serve other files.
+     */
+    public static Optional<Path> resolve(Path contentDirectory, String filename) {
+        Path directory = contentDirectory.toAbsolutePath().normalize();
+        try {
+            Path file = directory.resolve(filename).normalize();
+            return file.startsWith(directory) && !file.equals(directory) ? Optional.of(file) : Optional.empty();
+        } catch (InvalidPathException e) {
+            return Optional.empty();
+        }
+    }
+
+}
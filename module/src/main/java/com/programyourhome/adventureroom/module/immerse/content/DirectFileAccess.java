@@ -0,0 +1,66 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Access of the Immerse server to the audio content directory on its own file system, so audio files can be
+ * played by path instead of being exposed and fetched over HTTP. That is the case when the server runs on
+ * this machine, or when the content directory is shared with the server (for instance as a network mount).
+ */
+public class DirectFileAccess {
+
+    private final Path localContentDirectory;
+    private final Optional<String> serverContentDirectory;
+
+    private DirectFileAccess(Path localContentDirectory, Optional<String> serverContentDirectory) {
+        this.localContentDirectory = localContentDirectory;
+        this.serverContentDirectory = serverContentDirectory;
+    }
+
+    /**
+     * Detect direct file access: either a shared content directory was configured (the path as seen by the server),
+     * or the server host is an address of this machine, so it sees the same paths. Empty if neither applies.
+     */
+    public static Optional<DirectFileAccess> detect(Path localContentDirectory, Optional<String> serverContentDirectory, String serverHost) {
+        if (serverContentDirectory.isPresent() || isLocalHost(serverHost)) {
+            return Optional.of(new DirectFileAccess(localContentDirectory, serverContentDirectory));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The path of the audio file for the Immerse server, if the file is in the content directory.
+     */
+    public Optional<String> getServerPath(String filename) {
+        Optional<Path> localFile = ContentFiles.resolve(this.localContentDirectory, filename).filter(Files::isRegularFile);
+        if (!localFile.isPresent()) {
+            return Optional.empty();
+        }
+        // The server might use another path separator, so only join with a slash for a configured server directory.
+        String relativePath = this.localContentDirectory.toAbsolutePath().normalize().relativize(localFile.get()).toString().replace('\\', '/');
+        return Optional.of(this.serverContentDirectory
+                .map(directory -> directory.replaceAll("[/\\\\]+$", "") + "/" + relativePath)
+                .orElse(localFile.get().toString()));
+    }
+
+    static boolean isLocalHost(String host) {
+        try {
+            for (InetAddress address : InetAddress.getAllByName(host)) {
+                if (address.isLoopbackAddress() || address.isAnyLocalAddress() || NetworkInterface.getByInetAddress(address) != null) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (UnknownHostException | SocketException e) {
+            System.out.println("Could not determine whether Immerse host " + host + " is local: " + e.getMessage());
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.programyourhome.adventureroom.module.immerse.content;
+
+import java.util.Optional;
+
+import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
+import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
+
+/**
+ * Metadata read from the header of an audio resource: the container type, the PCM format
+ * and the offset of the first audio byte after the header (-1 if unknown).
+ */
+public class ProbedAudio {
+
+    private final Optional<AudioFileType> fileType;
+    private final Optional<ImmerseAudioFormat> format;
+    private final long dataOffset;
+
+    public ProbedAudio(Optional<AudioFileType> fileType, Optional<ImmerseAudioFormat> format, long dataOffset) {
+        this.fileType = fileType;
+        this.format = format;
+        this.dataOffset = dataOffset;
+    }
+
+    public static ProbedAudio unknown() {
+        return new ProbedAudio(Optional.empty(), Optional.empty(), -1);
+    }
+
+    public Optional<AudioFileType> getFileType() {
+        return this.fileType;
+    }
+
+    public Optional<ImmerseAudioFormat> getFormat() {
+        return this.format;
+    }
+
+    public long getDataOffset() {
+        return this.dataOffset;
+    }
+
+    /**
+     * Whether the audio data can be played as raw PCM, skipping the header at the data offset.
+     */
+    public boolean isRawPcmPlayable() {
+        return this.format.isPresent() && this.dataOffset >= 0;
+    }
+
+}
@@ -1,18 +1,45 @@
 package com.programyourhome.adventureroom.module.immerse.module;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.programyourhome.adventureroom.dsl.antlr.AbstractAntlrDslAdventureModule;
 import com.programyourhome.adventureroom.model.Adventure;
 import com.programyourhome.adventureroom.model.execution.ExecutionContext;
 import com.programyourhome.adventureroom.model.resource.ResourceDescriptor;
+import com.programyourhome.adventureroom.module.immerse.content.AudioContentCache;
+import com.programyourhome.adventureroom.module.immerse.content.AudioFileServer;
+import com.programyourhome.adventureroom.module.immerse.content.AudioFormatProbe;
+import com.programyourhome.adventureroom.module.immerse.content.AudioPrefetcher;
+import com.programyourhome.adventureroom.module.immerse.content.AudioTranscoder;
+import com.programyourhome.adventureroom.module.immerse.content.ContentFiles;
+import com.programyourhome.adventureroom.module.immerse.content.DirectFileAccess;
+import com.programyourhome.adventureroom.module.immerse.content.ProbedAudio;
+import com.programyourhome.adventureroom.module.immerse.dsl.ReferencedAudioFiles;
+import com.programyourhome.adventureroom.module.immerse.metrics.InMemoryMetricsExporter;
+import com.programyourhome.adventureroom.module.immerse.metrics.JmxMetricsExporter;
+import com.programyourhome.adventureroom.module.immerse.metrics.MeasuredImmerse;
+import com.programyourhome.adventureroom.module.immerse.metrics.MetricsRegistry;
 import com.programyourhome.adventureroom.module.immerse.model.OutputFormatExternalResource;
 import com.programyourhome.adventureroom.module.immerse.model.RoomExternalResource;
 import com.programyourhome.adventureroom.module.immerse.model.SoundCardExternalResource;
 import com.programyourhome.adventureroom.module.immerse.model.SpeakerExternalResource;
+import com.programyourhome.adventureroom.module.immerse.playback.PlayAudioScenarioCompiler;
+import com.programyourhome.adventureroom.module.immerse.playback.PlaybackDispatcher;
+import com.programyourhome.adventureroom.module.immerse.playback.ScenarioTemplateCache;
 import com.programyourhome.adventureroom.module.immerse.service.Immerse;
+import com.programyourhome.adventureroom.module.immerse.service.RoomGeometry;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
 import com.programyourhome.immerse.domain.ImmerseSettings;
 import com.programyourhome.immerse.domain.Room;
 import com.programyourhome.immerse.domain.audio.soundcard.SoundCard;
@@ -25,17 +52,52 @@ import one.util.streamex.StreamEx;
 public class ImmerseAdventureModule extends AbstractAntlrDslAdventureModule {
 
     public static final String ID = "immerse";
+    // System property with the (simple) class name of the registered Immerse implementation to use, like SimulatedImmerse.
+    public static final String PROPERTY_IMMERSE_IMPL = "immerse.service.impl";
+    public static final String DEFAULT_IMMERSE_IMPL = "ImmerseImpl";
 
+    private final MetricsRegistry metrics;
+    private final InMemoryMetricsExporter inMemoryMetrics;
     private final Immerse immerse;
+    private final PlaybackDispatcher playbackDispatcher;
+    private final ScenarioTemplateCache scenarioTemplateCache;
     private ImmerseConfig config;
     private ImmerseSettings immerseSettings;
+    private RoomGeometry roomGeometry;
+    private JmxMetricsExporter jmxMetrics;
+    private AudioContentCache audioContentCache;
+    private AudioFormatProbe audioFormatProbe;
+    private AudioPrefetcher audioPrefetcher;
+    private PlayAudioScenarioCompiler scenarioCompiler;
+    private AudioTranscoder audioTranscoder;
+    private AudioFileServer audioFileServer;
+    private Optional<DirectFileAccess> directFileAccess = Optional.empty();
 
     public ImmerseAdventureModule() {
         super("Immerse");
-        this.immerse = this.loadApiImpl(Immerse.class);
+        this.metrics = new MetricsRegistry();
+        this.inMemoryMetrics = new InMemoryMetricsExporter();
+        this.metrics.addExporter(this.inMemoryMetrics);
+        this.immerse = new MeasuredImmerse(this.loadImmerseImpl(), this.metrics);
+        this.playbackDispatcher = new PlaybackDispatcher(this.immerse);
+        this.scenarioTemplateCache = new ScenarioTemplateCache(this.immerse);
         this.initConfig();
     }
 
+    /**
+     * The Immerse implementation named by the system property, out of all implementations registered for the ServiceLoader.
+     * The services file of service-impl registers both the real client and the simulator, so the classpath order does not matter.
+     */
+    private Immerse loadImmerseImpl() {
+        String implName = System.getProperty(PROPERTY_IMMERSE_IMPL, DEFAULT_IMMERSE_IMPL);
+        List<Immerse> implementations = StreamEx.of(ServiceLoader.load(Immerse.class).iterator()).toList();
+        return StreamEx.of(implementations)
+                .findFirst(implementation -> implementation.getClass().getName().equals(implName)
+                        || implementation.getClass().getSimpleName().equals(implName))
+                .orElseThrow(() -> new IllegalStateException("No Immerse implementation '" + implName + "' registered, available: "
+                        + StreamEx.of(implementations).map(implementation -> implementation.getClass().getName()).joining(", ")));
+    }
+
     private void initConfig() {
         this.config = new ImmerseConfig();
         this.config.id = ID;
@@ -72,7 +134,9 @@ public class ImmerseAdventureModule extends AbstractAntlrDslAdventureModule {
             return new Vector3D(parseCoordinate.apply(0), parseCoordinate.apply(1), parseCoordinate.apply(2));
         });
 
-        this.config.addTask("Connect to Immerse client", () -> this.immerse.connect(this.immerseSettings, this.config.host, this.config.port));
+        this.config.addTask("Connect to Immerse client",
+                () -> this.immerse.connect(this.immerseSettings, this.roomGeometry, this.config.host, this.config.port,
+                        this.config.keepMixerForInProcessRestart));
     }
 
     @Override
@@ -116,20 +180,172 @@ public class ImmerseAdventureModule extends AbstractAntlrDslAdventureModule {
                 .soundCards(soundCards)
                 .outputFormat(outputFormat)
                 .build();
+        // Calculated once per start and shared by all scenario builders.
+        this.roomGeometry = RoomGeometry.of(room);
+
+        this.audioContentCache = new AudioContentCache(this.config.audioCacheSize,
+                Optional.ofNullable(this.config.audioContentDirectory).map(Paths::get), this.metrics);
+        this.audioFormatProbe = new AudioFormatProbe(this.config.probeAudioFormats);
+        this.scenarioCompiler = new PlayAudioScenarioCompiler(this.audioFormatProbe, this.config, this.scenarioTemplateCache);
+        this.audioPrefetcher = new AudioPrefetcher(this.audioContentCache, this.audioFormatProbe, this.config.prefetchLookahead);
+        if (this.config.directFileAccess && this.config.audioContentDirectory != null) {
+            this.directFileAccess = DirectFileAccess.detect(Paths.get(this.config.audioContentDirectory),
+                    Optional.ofNullable(this.config.serverContentDirectory), this.config.host);
+            if (!this.directFileAccess.isPresent()) {
+                System.out.println("Immerse server does not run on this machine and no shared content directory is configured, "
+                        + "audio files are played over HTTP");
+            }
+        }
+
+        List<String> referencedFilenames = ReferencedAudioFiles.getFilenames(adventure);
+        if ((this.config.transcodeAudio || this.config.serveAudioContent) && this.audioFileServer == null) {
+            this.audioFileServer = new AudioFileServer(this.getAudioServerHost(), this.config.audioServerPort);
+            this.audioFileServer.start();
+        }
+        if (this.config.transcodeAudio) {
+            this.startTranscoding(referencedFilenames, outputFormat, context);
+        }
+        if (this.config.prefetchOnStart) {
+            this.audioPrefetcher.prefetchAll(referencedFilenames, context);
+        }
+
+        if (this.config.jmxMetrics && this.jmxMetrics == null) {
+            this.jmxMetrics = new JmxMetricsExporter();
+            this.metrics.addExporter(this.jmxMetrics);
+        }
+    }
+
+    private void startTranscoding(List<String> filenames, ImmerseAudioFormat outputFormat, ExecutionContext context) {
+        Path directory = Optional.ofNullable(this.config.transcodedAudioDirectory)
+                .map(Paths::get)
+                .orElse(Paths.get(System.getProperty("java.io.tmpdir"), "immerse-transcoded"));
+        this.audioTranscoder = new AudioTranscoder(directory, outputFormat);
+        for (String filename : filenames) {
+            try {
+                this.audioTranscoder.transcode(filename, this.audioContentCache.getUrl(filename, context),
+                        this.audioContentCache.getVersion(filename));
+            } catch (RuntimeException e) {
+                // The file will be played in its original format.
+                System.out.println("Transcoding audio file " + filename + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private String getAudioServerHost() {
+        if (this.config.audioServerHost != null) {
+            return this.config.audioServerHost;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Could not determine local host address, please configure the audio server host", e);
+        }
+    }
+
+    /**
+     * The audio file as resource that does not need the content cache, if available. That is either the file
+     * converted to the output format, the file by path if the Immerse server can access the content directory,
+     * or the audio data of the file in the content directory, after its header, from the embedded audio server.
+     * Empty if the file should be played through the content cache.
+     */
+    public Optional<Consumer<ScenarioBuilder>> getServedAudioResource(String filename) {
+        Optional<Path> transcodedFile = Optional.ofNullable(this.audioTranscoder).flatMap(transcoder -> transcoder.getTranscodedFile(filename));
+        if (transcodedFile.isPresent() && this.audioFileServer != null) {
+            String url = this.audioFileServer.getUrl(transcodedFile.get(), 0);
+            ImmerseAudioFormat outputFormat = this.audioTranscoder.getOutputFormat();
+            return Optional.of(builder -> builder.urlWithFormat(url, outputFormat));
+        }
+        Optional<String> serverPath = this.directFileAccess.flatMap(fileAccess -> fileAccess.getServerPath(filename));
+        if (serverPath.isPresent()) {
+            return Optional.of(builder -> builder.file(serverPath.get()));
+        }
+        if (this.config.serveAudioContent && this.config.audioContentDirectory != null && this.audioFileServer != null) {
+            Optional<Path> contentFile = ContentFiles.resolve(Paths.get(this.config.audioContentDirectory), filename).filter(Files::isRegularFile);
+            if (contentFile.isPresent()) {
+                Path file = contentFile.get();
+                ProbedAudio probedAudio = this.audioFormatProbe.probe(file.toUri().toString());
+                if (probedAudio.isRawPcmPlayable()) {
+                    String url = this.audioFileServer.getUrl(file, probedAudio.getDataOffset());
+                    return Optional.of(builder -> builder.urlWithFormat(url, probedAudio.getFormat().get()));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public RoomGeometry getRoomGeometry() {
+        return this.roomGeometry;
     }
 
     public Immerse getImmerse() {
         return this.immerse;
     }
 
+    public PlaybackDispatcher getPlaybackDispatcher() {
+        return this.playbackDispatcher;
+    }
+
+    public ScenarioTemplateCache getScenarioTemplateCache() {
+        return this.scenarioTemplateCache;
+    }
+
+    public PlayAudioScenarioCompiler getScenarioCompiler() {
+        return this.scenarioCompiler;
+    }
+
+    public AudioContentCache getAudioContentCache() {
+        return this.audioContentCache;
+    }
+
+    public AudioFormatProbe getAudioFormatProbe() {
+        return this.audioFormatProbe;
+    }
+
+    public AudioPrefetcher getAudioPrefetcher() {
+        return this.audioPrefetcher;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return this.metrics;
+    }
+
+    public InMemoryMetricsExporter getInMemoryMetrics() {
+        return this.inMemoryMetrics;
+    }
+
     @Override
     public ImmerseConfig getConfig() {
         return this.config;
     }
 
+    /**
+     * Stop the module and always stop the mixer, also when it is kept for an in-process restart.
+     * For a real shutdown of the process: a mixer kept running is otherwise only stopped by a JVM shutdown hook.
+     */
+    public void shutdown(Adventure adventure, ExecutionContext context) {
+        this.stop(adventure, context);
+        this.immerse.shutdown();
+    }
+
     @Override
     public void stop(Adventure adventure, ExecutionContext context) {
+        // Background music and any other sound that is still playing, the runner only stops the actions it is running.
+        this.playbackDispatcher.stopAll().join();
+        this.scenarioTemplateCache.clear();
         this.immerse.quit();
+        if (this.audioPrefetcher != null) {
+            this.audioPrefetcher.shutdown();
+        }
+        if (this.audioFileServer != null) {
+            this.audioFileServer.stop();
+            this.audioFileServer = null;
+        }
+        this.audioTranscoder = null;
+        this.directFileAccess = Optional.empty();
+        if (this.jmxMetrics != null) {
+            this.metrics.removeExporter(this.jmxMetrics);
+            this.jmxMetrics = null;
+        }
     }
 
 }
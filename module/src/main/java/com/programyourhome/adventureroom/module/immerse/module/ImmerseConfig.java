@@ -6,5 +6,37 @@ public class ImmerseConfig extends ModuleConfig {
 
     public String host;
     public int port;
+    // Keep the mixer running when the adventure stops, to reuse it on a restart within the same process with the same room, sound cards and output format.
+    public boolean keepMixerForInProcessRestart;
+    // Export the latency histograms and counters of the module as MXBeans.
+    public boolean jmxMetrics;
+    // Maximum amount of exposed audio files kept in the content cache.
+    public int audioCacheSize = 100;
+    // Optional directory of the audio content, used to detect changed files in the content cache.
+    public String audioContentDirectory;
+    // Stage all audio files referenced by the adventure in the content cache when the module starts.
+    public boolean prefetchOnStart = true;
+    // Amount of upcoming audio files (in script order) to stage whenever an audio file is played, 0 to disable.
+    public int prefetchLookahead = 5;
+    // Detect the type and format of audio files from their header, instead of assuming wave.
+    public boolean probeAudioFormats = true;
+    // Convert all audio files referenced by the adventure to the output format when the module starts.
+    public boolean transcodeAudio;
+    // Directory for the converted audio files, defaults to a directory in the system temp directory.
+    public String transcodedAudioDirectory;
+    // Let the Immerse server play audio files from the content directory by path, if it runs on this machine or has a shared directory.
+    public boolean directFileAccess;
+    // Path of the shared audio content directory as seen by the Immerse server, if it does not run on this machine.
+    public String serverContentDirectory;
+    // Serve audio files from the content directory with the embedded audio server, as raw PCM without the file header.
+    public boolean serveAudioContent;
+    // Host name or address the Immerse server can reach this machine on, defaults to the local host address.
+    public String audioServerHost;
+    // Port of the embedded audio server, 0 for any free port.
+    public int audioServerPort;
+    // Calculate the speaker volumes of sounds with a static source and listener once, instead of by the mixer for every buffer.
+    public boolean bakeStaticVolumeRatios;
+    // Sample circling sounds into position tables with this resolution in millis, shared by identical motions, 0 to disable. Paths are not affected.
+    public long trajectorySampleMillis;
 
 }
@@ -0,0 +1,104 @@
+package com.programyourhome.adventureroom.module.immerse.playback;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.programyourhome.adventureroom.model.util.StreamUtil;
+import com.programyourhome.adventureroom.module.immerse.content.AudioFormatProbe;
+import com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction;
+import com.programyourhome.adventureroom.module.immerse.module.ImmerseConfig;
+import com.programyourhome.adventureroom.module.immerse.service.Immerse;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.immerse.domain.Factory;
+import com.programyourhome.immerse.domain.Scenario;
+import com.programyourhome.immerse.domain.location.dynamic.DynamicLocation;
+
+/**
+ * Turns play audio actions into scenarios, using a cached template per action.
+ */
+public class PlayAudioScenarioCompiler {
+
+    private final AudioFormatProbe audioFormatProbe;
+    private final ImmerseConfig config;
+    private final ScenarioTemplateCache templateCache;
+
+    public PlayAudioScenarioCompiler(AudioFormatProbe audioFormatProbe, ImmerseConfig config, ScenarioTemplateCache templateCache) {
+        this.audioFormatProbe = audioFormatProbe;
+        this.config = config;
+        this.templateCache = templateCache;
+    }
+
+    /**
+     * Build the scenario for the action. The url of a file resource can differ per execution,
+     * so the file resource is passed in and only set on the template right before building.
+     */
+    public Scenario buildScenario(PlayAudioAction action, Immerse immerse, Optional<Consumer<ScenarioBuilder>> fileResource) {
+        return this.templateCache.getTemplate(action, () -> this.compileScenario(action, immerse))
+                .bind(builder -> fileResource.ifPresent(resource -> resource.accept(builder)));
+    }
+
+    /**
+     * Configure a builder with all settings that are the same for every execution of the action.
+     */
+    public ScenarioBuilder compileScenario(PlayAudioAction action, Immerse immerse) {
+        ScenarioBuilder builder = immerse.scenarioBuilder()
+                .name(action.resource.toString())
+                .description("Audio '" + action.resource.toString() + "' triggered by the Immerse Adventure Module")
+                .bakeStaticVolumeRatios(this.config.bakeStaticVolumeRatios)
+                .sampleTrajectories(this.config.trajectorySampleMillis);
+
+        action.resource.getUrl().ifPresent(urlResource -> {
+            // TODO: can this isPresent/get be avoided?
+            if (urlResource.audioFormat.isPresent()) {
+                builder.urlWithFormat(urlResource.urlString, urlResource.audioFormat.get());
+            } else {
+                this.audioFormatProbe.setResource(builder, urlResource.urlString);
+            }
+        });
+
+        action.volume.ifPresent(volume -> {
+            double fractionalVolume = volume.volumePercentage / 100.0;
+            builder.volume(fractionalVolume);
+            volume.fadeInMillis.ifPresent(fadeInMillis -> builder.linearVolume(0, fractionalVolume, fadeInMillis));
+        });
+
+        action.soundSource.ifPresent(soundSource -> {
+            soundSource.getSpeakers().ifPresent(builder::sourceAtSpeakers);
+            soundSource.getDynamicLocation().ifPresent(sourceDynamicLocation -> {
+                Factory<DynamicLocation> sourceLocation = this.toImmerseDynamicLocation(sourceDynamicLocation, builder);
+                Factory<DynamicLocation> listenerLocation = action.listenerLocation
+                        .map(listenerDynamicLocation -> this.toImmerseDynamicLocation(listenerDynamicLocation, builder))
+                        .orElse(builder.atCenter());
+                builder.fieldOfHearingVolume(sourceLocation, listenerLocation);
+                builder.volumeAsOneSpeaker();
+            });
+        });
+
+        action.normalize.ifPresent(normalize -> {
+            normalize.getAsOneSpeaker().ifPresent(one -> builder.volumeAsOneSpeaker());
+            normalize.getAsAllSpeakers().ifPresent(all -> builder.normalizeVolume());
+        });
+
+        action.playback.ifPresent(playback -> {
+            playback.getOnce().ifPresent(once -> builder.playOnce());
+            playback.getRepeat().ifPresent(repeat -> builder.playRepeat(repeat));
+            playback.getForever().ifPresent(forever -> builder.playRepeatForever());
+            playback.getSeconds().ifPresent(seconds -> builder.playForDuration(Duration.ofSeconds(seconds)));
+        });
+
+        return builder;
+    }
+
+    private Factory<DynamicLocation> toImmerseDynamicLocation(
+            com.programyourhome.adventureroom.module.immerse.model.PlayAudioAction.DynamicLocation dynamicLocation, ScenarioBuilder builder) {
+        return StreamUtil.getOne(
+                dynamicLocation.getStaticLocation().map(builder::atLocation),
+                dynamicLocation.getPath().map(path -> path.smooth
+                        ? builder.atSmoothPath(path.waypoints, path.speed, path.loop)
+                        : builder.atPath(path.waypoints, path.speed, path.loop)),
+                dynamicLocation.getCircling().map(circling -> builder.circling(circling.center, circling.startAngle.orElse(0D), circling.radius,
+                        circling.speed, circling.clockwise.orElse(true))));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.programyourhome.adventureroom.module.immerse.playback;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.programyourhome.adventureroom.module.immerse.service.Immerse;
+import com.programyourhome.immerse.domain.Scenario;
+
+import one.util.streamex.StreamEx;
+
+/**
+ * Keeps track of all playbacks started through the Immerse service, so they can all be stopped when the module stops.
+ * There is one dispatcher per module, shared by all executors. The dispatcher itself never waits for a playback:
+ * only the parties that want to know about the end of a playback wait for it or ask for its completion.
+ */
+public class PlaybackDispatcher {
+
+    private final Immerse immerse;
+    private final Set<UUID> activePlaybacks;
+
+    public PlaybackDispatcher(Immerse immerse) {
+        this.immerse = immerse;
+        this.activePlaybacks = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Start playing the scenario. The future completes with the playback id as soon as the playback has started.
+     */
+    public CompletableFuture<UUID> play(Scenario scenario) {
+        return this.immerse.playScenarioAsync(scenario).thenApply(this::track);
+    }
+
+    /**
+     * Start playing all scenarios together. The future completes with the playback ids, in the same order as the scenarios.
+     */
+    public CompletableFuture<List<UUID>> playAll(List<Scenario> scenarios) {
+        return this.immerse.playScenariosAsync(scenarios).thenApply(playbackIds -> StreamEx.of(playbackIds).map(this::track).toList());
+    }
+
+    /**
+     * Block the calling thread until the playback has ended or was stopped.
+     */
+    public void awaitCompletion(UUID playbackId) {
+        try {
+            this.immerse.waitForPlayback(playbackId);
+        } finally {
+            this.activePlaybacks.remove(playbackId);
+        }
+    }
+
+    /**
+     * Future that completes when the Immerse service observes the end of the playback, see Immerse.playbackCompletion.
+     */
+    public CompletableFuture<UUID> completion(UUID playbackId) {
+        return this.immerse.playbackCompletion(playbackId).whenComplete((result, exception) -> this.activePlaybacks.remove(playbackId));
+    }
+
+    public CompletableFuture<Void> fadeOut(UUID playbackId, int millis) {
+        return this.immerse.fadeOutPlaybackAsync(playbackId, millis);
+    }
+
+    public CompletableFuture<Void> stop(UUID playbackId) {
+        return this.immerse.stopPlaybackAsync(playbackId)
+                .whenComplete((result, exception) -> this.activePlaybacks.remove(playbackId));
+    }
+
+    /**
+     * Stop all playbacks that are still active as far as the dispatcher knows, for instance because the adventure stops.
+     */
+    public CompletableFuture<Void> stopAll() {
+        return CompletableFuture.allOf(StreamEx.of(this.activePlaybacks)
+                // Playbacks nobody waited for may have ended by themselves already.
+                .map(playbackId -> this.stop(playbackId).exceptionally(exception -> null))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    public int getActivePlaybackCount() {
+        return this.activePlaybacks.size();
+    }
+
+    private UUID track(UUID playbackId) {
+        this.activePlaybacks.add(playbackId);
+        return playbackId;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.programyourhome.adventureroom.module.immerse.playback;
+
+import java.util.function.Consumer;
+
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.immerse.domain.ImmerseSettings;
+import com.programyourhome.immerse.domain.Scenario;
+
+/**
+ * A scenario builder that has been fully configured for an action, except for the parts that differ per execution.
+ * The template itself is never changed after compiling: every bind works on its own copy of the builder,
+ * so concurrent executions of the same action do not wait for each other.
+ */
+public class ScenarioTemplate {
+
+    private final ImmerseSettings settings;
+    private final ScenarioBuilder builder;
+
+    public ScenarioTemplate(ImmerseSettings settings, ScenarioBuilder builder) {
+        this.settings = settings;
+        this.builder = builder;
+    }
+
+    public ImmerseSettings getSettings() {
+        return this.settings;
+    }
+
+    public Scenario bind(Consumer<ScenarioBuilder> binder) {
+        ScenarioBuilder boundBuilder = this.builder.copy();
+        binder.accept(boundBuilder);
+        return boundBuilder.build();
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.programyourhome.adventureroom.module.immerse.playback;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.programyourhome.adventureroom.model.script.action.Action;
+import com.programyourhome.adventureroom.module.immerse.service.Immerse;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+
+/**
+ * Cache of compiled scenario templates per (parsed) action. Actions do not change after parsing,
+ * so the scenario settings they describe only have to be built once per Immerse settings.
+ * Keeps hit/miss statistics and an estimate of the allocations saved by the cache hits.
+ * There is one cache per module, cleared when the module stops.
+ */
+public class ScenarioTemplateCache {
+
+    private final Immerse immerse;
+    // Weak keys: templates are dropped together with the adventure (actions) they belong to.
+    private final Map<Action, ScenarioTemplate> templates;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong compileAllocatedBytes;
+
+    public ScenarioTemplateCache(Immerse immerse) {
+        this.immerse = immerse;
+        this.templates = Collections.synchronizedMap(new WeakHashMap<>());
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.compileAllocatedBytes = new AtomicLong();
+    }
+
+    public ScenarioTemplate getTemplate(Action action, Supplier<ScenarioBuilder> compiler) {
+        ScenarioTemplate template = this.templates.get(action);
+        // A template is only valid for the settings it was compiled with, a new adventure start means new settings.
+        if (template != null && template.getSettings() == this.immerse.getSettings()) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+            long allocatedBefore = currentThreadAllocatedBytes();
+            template = new ScenarioTemplate(this.immerse.getSettings(), compiler.get());
+            this.compileAllocatedBytes.addAndGet(currentThreadAllocatedBytes() - allocatedBefore);
+            this.templates.put(action, template);
+        }
+        return template;
+    }
+
+    public void clear() {
+        this.templates.clear();
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public double getHitRate() {
+        long total = this.getHits() + this.getMisses();
+        return total == 0 ? 0 : (double) this.getHits() / total;
+    }
+
+    /**
+     * Average amount of bytes allocated by compiling one template, or -1 if the JVM cannot measure that.
+     */
+    public long getAllocatedBytesPerCompile() {
+        long misses = this.getMisses();
+        if (misses == 0 || currentThreadAllocatedBytes() < 0) {
+            return -1;
+        }
+        return this.compileAllocatedBytes.get() / misses;
+    }
+
+    /**
+     * Estimate of the amount of bytes that were not allocated thanks to cache hits, or -1 if the JVM cannot measure that.
+     */
+    public long getEstimatedAllocationSavings() {
+        long allocatedBytesPerCompile = this.getAllocatedBytesPerCompile();
+        return allocatedBytesPerCompile < 0 ? -1 : allocatedBytesPerCompile * this.getHits();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Scenario templates: %d hits, %d misses (hit rate %.1f%%), ~%d bytes saved (%d bytes per compile)",
+                this.getHits(), this.getMisses(), this.getHitRate() * 100, this.getEstimatedAllocationSavings(), this.getAllocatedBytesPerCompile());
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+}
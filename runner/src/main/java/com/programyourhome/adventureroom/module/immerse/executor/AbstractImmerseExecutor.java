@@ -1,12 +1,19 @@
 package com.programyourhome.adventureroom.module.immerse.executor;
 
 import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import com.programyourhome.adventureroom.model.execution.ExecutionContext;
 import com.programyourhome.adventureroom.model.script.action.Action;
+import com.programyourhome.adventureroom.module.immerse.metrics.LatencyHistogram;
 import com.programyourhome.adventureroom.module.immerse.model.SpeakerExternalResource;
 import com.programyourhome.adventureroom.module.immerse.module.ImmerseAdventureModule;
+import com.programyourhome.adventureroom.module.immerse.playback.PlaybackDispatcher;
 import com.programyourhome.adventureroom.module.immerse.service.Immerse;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.immerse.domain.Scenario;
 import com.programyourhome.immerse.domain.speakers.Speaker;
 import com.programyourhome.iotadventure.runner.action.executor.ActionExecutor;
 
@@ -14,6 +21,11 @@ import one.util.streamex.StreamEx;
 
 public abstract class AbstractImmerseExecutor<A extends Action> implements ActionExecutor<A> {
 
+    /**
+     * The playback this executor is responsible for, completed as soon as it is known.
+     */
+    protected final CompletableFuture<UUID> playbackId = new CompletableFuture<>();
+
     protected ImmerseAdventureModule getModule(ExecutionContext context) {
         return context.getModule(ImmerseAdventureModule.ID);
     }
@@ -22,10 +34,65 @@ public abstract class AbstractImmerseExecutor<A extends Action> implements Actio
         return this.getModule(context).getImmerse();
     }
 
+    protected PlaybackDispatcher getPlaybackDispatcher(ExecutionContext context) {
+        return this.getModule(context).getPlaybackDispatcher();
+    }
+
+    /**
+     * Histogram for timings of this type of executor, like the time from trigger to a started playback.
+     */
+    protected LatencyHistogram getExecutorHistogram(ExecutionContext context, String measurement) {
+        return this.getModule(context).getMetrics().histogram("executor." + this.getClass().getSimpleName() + "." + measurement);
+    }
+
     protected Collection<Integer> getSpeakerIds(ExecutionContext context) {
         return StreamEx.of(context.getAdventure().getExternalResources(SpeakerExternalResource.class))
                 .map(Speaker::getId)
                 .toList();
     }
 
+    /**
+     * The url of the audio file, from the content cache. Also stages the audio files that come after this one.
+     */
+    protected String getAudioFileUrl(String filename, ExecutionContext context) {
+        String url = this.getModule(context).getAudioContentCache().getUrl(filename, context);
+        this.getModule(context).getAudioPrefetcher().prefetchAfter(filename, context);
+        return url;
+    }
+
+    /**
+     * Sets the audio file as resource on a scenario builder. A file served by the embedded audio server is played
+     * as raw PCM, other files are played from the content cache with their detected type.
+     */
+    protected Consumer<ScenarioBuilder> getAudioFileResource(String filename, ExecutionContext context) {
+        ImmerseAdventureModule module = this.getModule(context);
+        return module.getServedAudioResource(filename).orElseGet(() -> {
+            String url = this.getAudioFileUrl(filename, context);
+            return builder -> module.getAudioFormatProbe().setResource(builder, url);
+        });
+    }
+
+    protected UUID startPlayback(Scenario scenario, ExecutionContext context) {
+        try {
+            UUID startedPlaybackId = this.getPlaybackDispatcher(context).play(scenario).join();
+            this.playbackId.complete(startedPlaybackId);
+            return startedPlaybackId;
+        } catch (RuntimeException e) {
+            this.playbackId.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Stop the playback of this executor. If the playback id is not known yet, the stop is
+     * scheduled for the moment it becomes known, instead of waiting for it.
+     */
+    protected void stopPlayback(ExecutionContext context) {
+        PlaybackDispatcher dispatcher = this.getPlaybackDispatcher(context);
+        CompletableFuture<Void> stopped = this.playbackId.thenCompose(dispatcher::stop);
+        if (this.playbackId.isDone() && !this.playbackId.isCompletedExceptionally()) {
+            stopped.join();
+        }
+    }
+
 }
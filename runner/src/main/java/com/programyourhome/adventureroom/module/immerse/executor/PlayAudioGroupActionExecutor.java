@@ -0,0 +1,58 @@
+package com.programyourhome.adventureroom.module.immerse.executor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import com.programyourhome.adventureroom.model.execution.ExecutionContext;
+import com.programyourhome.adventureroom.module.immerse.model.PlayAudioGroupAction;
+import com.programyourhome.adventureroom.module.immerse.playback.PlaybackDispatcher;
+import com.programyourhome.immerse.domain.Scenario;
+
+import one.util.streamex.EntryStream;
+import one.util.streamex.StreamEx;
+
+/**
+ * Starts the playbacks of all audio in the group together and waits until all of them have ended.
+ */
+public class PlayAudioGroupActionExecutor extends AbstractImmerseExecutor<PlayAudioGroupAction> {
+
+    private final CompletableFuture<List<UUID>> playbackIds = new CompletableFuture<>();
+
+    @Override
+    public void execute(PlayAudioGroupAction action, ExecutionContext context) {
+        long triggerNanos = System.nanoTime();
+        PlayAudioActionExecutor scenarioSource = new PlayAudioActionExecutor();
+        List<Scenario> scenarios = StreamEx.of(action.actions)
+                .map(playAudioAction -> scenarioSource.buildScenario(playAudioAction, context))
+                .toList();
+
+        PlaybackDispatcher dispatcher = this.getPlaybackDispatcher(context);
+        List<UUID> startedPlaybackIds;
+        try {
+            startedPlaybackIds = dispatcher.playAll(scenarios).join();
+            this.playbackIds.complete(startedPlaybackIds);
+            this.getExecutorHistogram(context, "triggerToPlayback").recordSince(triggerNanos);
+        } catch (RuntimeException e) {
+            this.playbackIds.completeExceptionally(e);
+            throw e;
+        }
+
+        EntryStream.zip(action.actions, startedPlaybackIds).forKeyValue((playAudioAction, startedPlaybackId) -> playAudioAction.saveAsVariable
+                .ifPresent(variableName -> context.setVariableValue(variableName, startedPlaybackId)));
+
+        // They play at the same time, so waiting for them one after the other takes as long as the longest playback.
+        startedPlaybackIds.forEach(dispatcher::awaitCompletion);
+    }
+
+    @Override
+    public void stop(ExecutionContext context) {
+        PlaybackDispatcher dispatcher = this.getPlaybackDispatcher(context);
+        CompletableFuture<Void> stopped = this.playbackIds.thenCompose(startedPlaybackIds -> CompletableFuture.allOf(
+                StreamEx.of(startedPlaybackIds).map(dispatcher::stop).toArray(CompletableFuture[]::new)));
+        if (this.playbackIds.isDone() && !this.playbackIds.isCompletedExceptionally()) {
+            stopped.join();
+        }
+    }
+
+}
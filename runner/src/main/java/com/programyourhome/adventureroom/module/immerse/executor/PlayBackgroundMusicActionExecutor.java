@@ -1,37 +1,28 @@
 package com.programyourhome.adventureroom.module.immerse.executor;
 
-import java.net.URL;
 import java.util.UUID;
 
 import com.programyourhome.adventureroom.model.execution.ExecutionContext;
-import com.programyourhome.adventureroom.model.toolbox.ContentCategory;
-import com.programyourhome.adventureroom.model.toolbox.DataStream;
-import com.programyourhome.adventureroom.model.util.IOUtil;
 import com.programyourhome.adventureroom.module.immerse.model.PlayBackgroundMusicAction;
 import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
 import com.programyourhome.immerse.domain.Scenario;
-import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
 
 //TODO: merge building the scenario logic with PlayAudioActionExecutor
 public class PlayBackgroundMusicActionExecutor extends AbstractImmerseExecutor<PlayBackgroundMusicAction> {
 
     public static final String BACKGROUND_MUSIC_VARIABLE_NAME = "immerse.background.music";
 
-    private UUID playbackId;
-
     @Override
     public void execute(PlayBackgroundMusicAction action, ExecutionContext context) {
         if (context.isVariableDefined(BACKGROUND_MUSIC_VARIABLE_NAME)) {
             throw new IllegalStateException("There is already background music playing");
         }
 
-        DataStream dataStream = context.getToolbox().getContentService().getContent(ContentCategory.AUDIO, action.filename);
-        URL url = context.getToolbox().getDataStreamToUrl().exposeDataStream(dataStream);
+        long triggerNanos = System.nanoTime();
         ScenarioBuilder builder = this.getImmerse(context).scenarioBuilder()
                 .name("Background Music")
-                .description("Background music '" + action.filename + "' triggered by the Immerse Adventure Module")
-                // TODO: Now always default wav
-                .urlWithType(url.toString(), AudioFileType.WAVE);
+                .description("Background music '" + action.filename + "' triggered by the Immerse Adventure Module");
+        this.getAudioFileResource(action.filename, context).accept(builder);
 
         // TODO: make a property out of default setting
         // Background music, so not full volume.
@@ -48,14 +39,14 @@ public class PlayBackgroundMusicActionExecutor extends AbstractImmerseExecutor<P
                 .sourceAtAllSpeakers()
                 .playRepeatForever()
                 .build();
-        this.playbackId = this.getImmerse(context).playScenario(scenario);
-        context.setVariableValue(BACKGROUND_MUSIC_VARIABLE_NAME, this.playbackId);
+        UUID startedPlaybackId = this.startPlayback(scenario, context);
+        this.getExecutorHistogram(context, "triggerToPlayback").recordSince(triggerNanos);
+        context.setVariableValue(BACKGROUND_MUSIC_VARIABLE_NAME, startedPlaybackId);
     }
 
     @Override
     public void stop(ExecutionContext context) {
-        IOUtil.waitForCondition(() -> this.playbackId != null);
-        this.getImmerse(context).stopPlayback(this.playbackId);
+        this.stopPlayback(context);
     }
 
 }
@@ -5,25 +5,25 @@ import static com.programyourhome.adventureroom.module.immerse.executor.PlayBack
 import java.util.UUID;
 
 import com.programyourhome.adventureroom.model.execution.ExecutionContext;
-import com.programyourhome.adventureroom.model.util.IOUtil;
 import com.programyourhome.adventureroom.module.immerse.model.StopBackgroundMusicAction;
 
 public class StopBackgroundMusicActionExecutor extends AbstractImmerseExecutor<StopBackgroundMusicAction> {
 
-    private UUID playbackId;
-
     @Override
     public void execute(StopBackgroundMusicAction action, ExecutionContext context) {
         if (!context.isVariableDefined(BACKGROUND_MUSIC_VARIABLE_NAME)) {
             throw new IllegalStateException("There is no background music playing");
         }
-        this.playbackId = context.getVariableValue(PlayBackgroundMusicActionExecutor.BACKGROUND_MUSIC_VARIABLE_NAME);
+        UUID variablePlaybackId = context.getVariableValue(PlayBackgroundMusicActionExecutor.BACKGROUND_MUSIC_VARIABLE_NAME);
+        this.playbackId.complete(variablePlaybackId);
+        long triggerNanos = System.nanoTime();
         if (action.fadeOutMillis.isPresent()) {
-            this.getImmerse(context).fadeOutPlayback(this.playbackId, action.fadeOutMillis.get());
+            this.getPlaybackDispatcher(context).fadeOut(variablePlaybackId, action.fadeOutMillis.get()).join();
             // TODO: wait for fade out
         } else {
-            this.getImmerse(context).stopPlayback(this.playbackId);
+            this.getPlaybackDispatcher(context).stop(variablePlaybackId).join();
         }
+        this.getExecutorHistogram(context, "execute").recordSince(triggerNanos);
         // TODO: maybe better just wait for also after stop, so the playback is really gone, either way
         context.removeVariable(BACKGROUND_MUSIC_VARIABLE_NAME);
     }
@@ -31,8 +31,7 @@ public class StopBackgroundMusicActionExecutor extends AbstractImmerseExecutor<S
     @Override
     public void stop(ExecutionContext context) {
         // Force stop here as well, cause main activity might be stuck in fade out.
-        IOUtil.waitForCondition(() -> this.playbackId != null);
-        this.getImmerse(context).stopPlayback(this.playbackId);
+        this.stopPlayback(context);
     }
 
 }
@@ -0,0 +1,30 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter that can go up and down, like the amount of active playbacks.
+ */
+public class Counter implements CounterMXBean {
+
+    private final AtomicLong value = new AtomicLong();
+
+    public void increment() {
+        this.value.incrementAndGet();
+    }
+
+    public void decrement() {
+        this.value.decrementAndGet();
+    }
+
+    @Override
+    public long getValue() {
+        return this.value.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.getValue());
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+public interface CounterMXBean {
+
+    public long getValue();
+
+}
@@ -0,0 +1,48 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the exported metrics in memory, to be inspected or logged as a report.
+ */
+public class InMemoryMetricsExporter implements MetricsExporter {
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void histogramAdded(String name, LatencyHistogram histogram) {
+        this.histograms.put(name, histogram);
+    }
+
+    @Override
+    public void counterAdded(String name, Counter counter) {
+        this.counters.put(name, counter);
+    }
+
+    @Override
+    public void close() {
+        this.histograms.clear();
+        this.counters.clear();
+    }
+
+    /**
+     * A snapshot of the current state of all metrics, sorted by name.
+     */
+    public SortedMap<String, String> snapshot() {
+        SortedMap<String, String> snapshot = new TreeMap<>();
+        this.histograms.forEach((name, histogram) -> snapshot.put(name, histogram.toString()));
+        this.counters.forEach((name, counter) -> snapshot.put(name, counter.toString()));
+        return snapshot;
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        this.snapshot().forEach((name, value) -> report.append(name).append(": ").append(value).append(System.lineSeparator()));
+        return report.toString();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers every metric as an MXBean in the platform MBean server, so they can be watched with JConsole, VisualVM, etc.
+ */
+public class JmxMetricsExporter implements MetricsExporter {
+
+    public static final String DOMAIN = "com.programyourhome.adventureroom.module.immerse";
+
+    private final MBeanServer mBeanServer;
+    private final List<ObjectName> registeredNames;
+
+    public JmxMetricsExporter() {
+        this.mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        this.registeredNames = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public void histogramAdded(String name, LatencyHistogram histogram) {
+        this.register("Histogram", name, histogram);
+    }
+
+    @Override
+    public void counterAdded(String name, Counter counter) {
+        this.register("Counter", name, counter);
+    }
+
+    @Override
+    public void close() {
+        for (ObjectName objectName : this.registeredNames) {
+            try {
+                this.mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                // Already gone, nothing left to clean up.
+            }
+        }
+        this.registeredNames.clear();
+    }
+
+    private void register(String type, String name, Object metric) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (this.mBeanServer.isRegistered(objectName)) {
+                // Left behind by a previous module instance, replace it with the current metric.
+                this.mBeanServer.unregisterMBean(objectName);
+            }
+            this.mBeanServer.registerMBean(metric, objectName);
+            this.registeredNames.add(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Exception during registering metric " + name + " in JMX", e);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram in the style of HdrHistogram: buckets are grouped per power of two,
+ * with a fixed amount of linear sub buckets per group. That gives a constant relative precision
+ * (about 3%) over the whole range from nanoseconds to hours, with a fixed memory footprint.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        this.buckets.incrementAndGet(bucketIndex(value));
+        this.count.increment();
+        this.sum.add(value);
+        this.max.accumulate(value);
+    }
+
+    public void recordSince(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * The (upper bound of the bucket of the) value in nanos below which the given percentage of the recorded values falls.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long totalCount = this.getCount();
+        if (totalCount == 0) {
+            return 0;
+        }
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long countSoFar = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            countSoFar += this.buckets.get(index);
+            if (countSoFar >= targetCount) {
+                return Math.min(bucketUpperBound(index), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    @Override
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long totalCount = this.getCount();
+        return totalCount == 0 ? 0 : toMillis(this.sum.sum() / totalCount);
+    }
+
+    @Override
+    public double getMedianMillis() {
+        return toMillis(this.getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getPercentile90Millis() {
+        return toMillis(this.getValueAtPercentile(90));
+    }
+
+    @Override
+    public double getPercentile99Millis() {
+        return toMillis(this.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getPercentile999Millis() {
+        return toMillis(this.getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return toMillis(this.max.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                this.getCount(), this.getMeanMillis(), this.getMedianMillis(), this.getPercentile90Millis(),
+                this.getPercentile99Millis(), this.getPercentile999Millis(), this.getMaxMillis());
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+public interface LatencyHistogramMXBean {
+
+    public long getCount();
+
+    public double getMeanMillis();
+
+    public double getMedianMillis();
+
+    public double getPercentile90Millis();
+
+    public double getPercentile99Millis();
+
+    public double getPercentile999Millis();
+
+    public double getMaxMillis();
+
+}
@@ -0,0 +1,158 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.programyourhome.adventureroom.module.immerse.service.Immerse;
+import com.programyourhome.adventureroom.module.immerse.service.RoomGeometry;
+import com.programyourhome.adventureroom.module.immerse.service.ScenarioBuilder;
+import com.programyourhome.immerse.domain.ImmerseSettings;
+import com.programyourhome.immerse.domain.Scenario;
+
+/**
+ * Immerse decorator that records the latency of every operation and keeps track of the amount of active playbacks.
+ */
+public class MeasuredImmerse implements Immerse {
+
+    public static final String PREFIX = "immerse.";
+    public static final String ACTIVE_PLAYBACKS = PREFIX + "activePlaybacks";
+
+    private final Immerse immerse;
+    private final MetricsRegistry metrics;
+
+    public MeasuredImmerse(Immerse immerse, MetricsRegistry metrics) {
+        this.immerse = immerse;
+        this.metrics = metrics;
+    }
+
+    public Immerse getMeasuredImmerse() {
+        return this.immerse;
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, String host, int port) {
+        this.measure("connect", () -> this.immerse.connect(settings, host, port));
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, String host, int port, boolean keepMixerForRestart) {
+        this.measure("connect", () -> this.immerse.connect(settings, host, port, keepMixerForRestart));
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, RoomGeometry roomGeometry, String host, int port, boolean keepMixerForRestart) {
+        this.measure("connect", () -> this.immerse.connect(settings, roomGeometry, host, port, keepMixerForRestart));
+    }
+
+    @Override
+    public ImmerseSettings getSettings() {
+        return this.immerse.getSettings();
+    }
+
+    @Override
+    public RoomGeometry getRoomGeometry() {
+        return this.immerse.getRoomGeometry();
+    }
+
+    @Override
+    public ScenarioBuilder scenarioBuilder() {
+        return this.immerse.scenarioBuilder();
+    }
+
+    @Override
+    public UUID playScenario(Scenario scenario) {
+        return this.trackActive(this.measure("playScenario", () -> this.immerse.playScenario(scenario)));
+    }
+
+    @Override
+    public List<UUID> playScenarios(List<Scenario> scenarios) {
+        List<UUID> playbackIds = this.measure("playScenarios", () -> this.immerse.playScenarios(scenarios));
+        playbackIds.forEach(this::trackActive);
+        return playbackIds;
+    }
+
+    @Override
+    public void waitForPlayback(UUID playbackId) {
+        this.immerse.waitForPlayback(playbackId);
+    }
+
+    @Override
+    public void fadeOutPlayback(UUID playbackId, int millis) {
+        this.measure("fadeOutPlayback", () -> this.immerse.fadeOutPlayback(playbackId, millis));
+    }
+
+    @Override
+    public void stopPlayback(UUID playbackId) {
+        this.measure("stopPlayback", () -> this.immerse.stopPlayback(playbackId));
+    }
+
+    @Override
+    public CompletableFuture<UUID> playScenarioAsync(Scenario scenario) {
+        return this.measureAsync("playScenario", () -> this.immerse.playScenarioAsync(scenario)).thenApply(this::trackActive);
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> playScenariosAsync(List<Scenario> scenarios) {
+        return this.measureAsync("playScenarios", () -> this.immerse.playScenariosAsync(scenarios)).thenApply(playbackIds -> {
+            playbackIds.forEach(this::trackActive);
+            return playbackIds;
+        });
+    }
+
+    @Override
+    public CompletableFuture<UUID> playbackCompletion(UUID playbackId) {
+        return this.immerse.playbackCompletion(playbackId);
+    }
+
+    @Override
+    public CompletableFuture<Void> fadeOutPlaybackAsync(UUID playbackId, int millis) {
+        return this.measureAsync("fadeOutPlayback", () -> this.immerse.fadeOutPlaybackAsync(playbackId, millis));
+    }
+
+    @Override
+    public CompletableFuture<Void> stopPlaybackAsync(UUID playbackId) {
+        return this.measureAsync("stopPlayback", () -> this.immerse.stopPlaybackAsync(playbackId));
+    }
+
+    @Override
+    public void quit() {
+        this.immerse.quit();
+    }
+
+    @Override
+    public void shutdown() {
+        this.immerse.shutdown();
+    }
+
+    private UUID trackActive(UUID playbackId) {
+        Counter activePlaybacks = this.metrics.counter(ACTIVE_PLAYBACKS);
+        activePlaybacks.increment();
+        this.immerse.playbackCompletion(playbackId).whenComplete((result, exception) -> activePlaybacks.decrement());
+        return playbackId;
+    }
+
+    private void measure(String operation, Runnable call) {
+        this.measure(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <T> T measure(String operation, Supplier<T> call) {
+        long startNanos = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            this.metrics.histogram(PREFIX + operation).recordSince(startNanos);
+        }
+    }
+
+    private <T> CompletableFuture<T> measureAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        long startNanos = System.nanoTime();
+        LatencyHistogram histogram = this.metrics.histogram(PREFIX + operation);
+        return call.get().whenComplete((result, exception) -> histogram.recordSince(startNanos));
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+/**
+ * Makes the metrics of a registry available somewhere. Gets notified of every metric in the registry,
+ * including the ones that already existed when the exporter was added.
+ */
+public interface MetricsExporter {
+
+    public void histogramAdded(String name, LatencyHistogram histogram);
+
+    public void counterAdded(String name, Counter counter);
+
+    public void close();
+
+}
@@ -0,0 +1,70 @@
+package com.programyourhome.adventureroom.module.immerse.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of all named metrics of the module. Metrics are created on first use.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> histograms;
+    private final Map<String, Counter> counters;
+    private final List<MetricsExporter> exporters;
+
+    public MetricsRegistry() {
+        this.histograms = new ConcurrentHashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.exporters = new CopyOnWriteArrayList<>();
+    }
+
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = this.histograms.get(name);
+        if (histogram == null) {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = this.histograms.putIfAbsent(name, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+                this.exporters.forEach(exporter -> exporter.histogramAdded(name, newHistogram));
+            }
+        }
+        return histogram;
+    }
+
+    public Counter counter(String name) {
+        Counter counter = this.counters.get(name);
+        if (counter == null) {
+            Counter newCounter = new Counter();
+            counter = this.counters.putIfAbsent(name, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+                this.exporters.forEach(exporter -> exporter.counterAdded(name, newCounter));
+            }
+        }
+        return counter;
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(this.histograms);
+    }
+
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(this.counters);
+    }
+
+    public void addExporter(MetricsExporter exporter) {
+        this.exporters.add(exporter);
+        this.histograms.forEach(exporter::histogramAdded);
+        this.counters.forEach(exporter::counterAdded);
+    }
+
+    public void removeExporter(MetricsExporter exporter) {
+        if (this.exporters.remove(exporter)) {
+            exporter.close();
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.programyourhome.adventureroom.module.immerse.service;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import com.programyourhome.immerse.domain.ImmerseSettings;
 import com.programyourhome.immerse.domain.Scenario;
@@ -9,18 +11,67 @@ public interface Immerse {
 
     public void connect(ImmerseSettings settings, String host, int port);
 
+    /**
+     * Connect to the Immerse server. With keepMixerForRestart, quit leaves the mixer running, and a mixer that was started
+     * earlier by this service with equivalent settings (room, sound cards and output format) is reused instead of recreated.
+     * That only speeds up a restart of the adventure with the same service instance: a new instance always recreates the mixer.
+     */
+    public void connect(ImmerseSettings settings, String host, int port, boolean keepMixerForRestart);
+
+    /**
+     * Connect to the Immerse server, with the room geometry precalculated by the caller for the settings.
+     */
+    public void connect(ImmerseSettings settings, RoomGeometry roomGeometry, String host, int port, boolean keepMixerForRestart);
+
     public ImmerseSettings getSettings();
 
+    public RoomGeometry getRoomGeometry();
+
     public ScenarioBuilder scenarioBuilder();
 
     public UUID playScenario(Scenario scenario);
 
+    /**
+     * Start playing all scenarios at about the same moment, for instance all sounds of one cue. This is not a batch:
+     * the Immerse server has no request for multiple scenarios, so every scenario is a separate play request. The requests
+     * are sent concurrently, so the scenarios start within about one round trip instead of one round trip after the other.
+     * The returned playback ids are in the same order as the scenarios.
+     */
+    public List<UUID> playScenarios(List<Scenario> scenarios);
+
     public void waitForPlayback(UUID playbackID);
 
     public void fadeOutPlayback(UUID playbackId, int millis);
 
     public void stopPlayback(UUID playbackId);
 
+    /**
+     * Start playing the scenario without blocking the calling thread.
+     * The future completes with the playback id as soon as the playback has started.
+     */
+    public CompletableFuture<UUID> playScenarioAsync(Scenario scenario);
+
+    public CompletableFuture<List<UUID>> playScenariosAsync(List<Scenario> scenarios);
+
+    /**
+     * Future that completes with the playback id when the playback has ended, either by itself or because it was stopped.
+     * Multiple calls for the same playback share the same future.
+     */
+    public CompletableFuture<UUID> playbackCompletion(UUID playbackId);
+
+    public CompletableFuture<Void> fadeOutPlaybackAsync(UUID playbackId, int millis);
+
+    public CompletableFuture<Void> stopPlaybackAsync(UUID playbackId);
+
+    /**
+     * Stop using the Immerse server. Leaves the mixer running if it should be kept for an in-process restart.
+     */
     public void quit();
 
+    /**
+     * Quit and always stop the mixer, also when it was kept running for an in-process restart.
+     * Call this when the process really shuts down.
+     */
+    public void shutdown();
+
 }
@@ -0,0 +1,176 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
+import com.programyourhome.immerse.domain.Room;
+import com.programyourhome.immerse.domain.location.Vector3D;
+import com.programyourhome.immerse.domain.speakers.Speaker;
+
+/**
+ * Immutable snapshot of the speaker geometry of a room, calculated once per adventure start and shared by all
+ * scenario builders: the center and bounding box of the speakers, dense speaker position arrays with the mapping
+ * from speaker id to array index, and the volume map for all speakers.
+ */
+public class RoomGeometry {
+
+    private static final Double FULL_VOLUME = 1.0;
+    private static final Double NO_VOLUME = 0.0;
+
+    private final Room room;
+    private final int[] speakerIds;
+    // Boxed once, so volume maps can be filled without boxing the keys again.
+    private final Integer[] boxedSpeakerIds;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final Map<Integer, Integer> speakerIndexes;
+    private final Vector3D center;
+    private final Vector3D minimum;
+    private final Vector3D maximum;
+    private final Map<Integer, Double> allSpeakerVolumes;
+    // The volume maps of the speaker selections used with this room, calculated on first use.
+    private final Map<SpeakerMask, Map<Integer, Double>> maskVolumes;
+    // Data derived from the geometry by the service implementation, calculated on first use.
+    private final Map<Class<?>, Object> derivedData;
+
+    private RoomGeometry(Room room) {
+        this.room = room;
+        Speaker[] speakers = room.getSpeakers().values().stream()
+                .sorted((speaker1, speaker2) -> Integer.compare(speaker1.getId(), speaker2.getId()))
+                .toArray(Speaker[]::new);
+        int count = speakers.length;
+        this.speakerIds = new int[count];
+        this.boxedSpeakerIds = new Integer[count];
+        this.xs = new double[count];
+        this.ys = new double[count];
+        this.zs = new double[count];
+        Map<Integer, Integer> indexes = new HashMap<>();
+        Map<Integer, Double> volumes = new HashMap<>();
+        for (int index = 0; index < count; index++) {
+            Speaker speaker = speakers[index];
+            this.speakerIds[index] = speaker.getId();
+            this.boxedSpeakerIds[index] = speaker.getId();
+            this.xs[index] = speaker.getPosition().getX();
+            this.ys[index] = speaker.getPosition().getY();
+            this.zs[index] = speaker.getPosition().getZ();
+            indexes.put(speaker.getId(), index);
+            volumes.put(speaker.getId(), FULL_VOLUME);
+        }
+        this.speakerIndexes = Collections.unmodifiableMap(indexes);
+        this.allSpeakerVolumes = Collections.unmodifiableMap(volumes);
+        this.center = new Vector3D(average(this.xs), average(this.ys), average(this.zs));
+        this.minimum = new Vector3D(min(this.xs), min(this.ys), min(this.zs));
+        this.maximum = new Vector3D(max(this.xs), max(this.ys), max(this.zs));
+        this.maskVolumes = new ConcurrentHashMap<>();
+        this.derivedData = new ConcurrentHashMap<>();
+    }
+
+    public static RoomGeometry of(Room room) {
+        return new RoomGeometry(room);
+    }
+
+    /**
+     * Data of the given type derived from this geometry, like the scenario defaults of the service implementation.
+     * Calculated once on first use and kept with the geometry, so looking it up takes no lock.
+     */
+    public <T> T getDerived(Class<T> type, Function<RoomGeometry, T> calculation) {
+        Object data = this.derivedData.get(type);
+        if (data == null) {
+            data = this.derivedData.computeIfAbsent(type, key -> calculation.apply(this));
+        }
+        return type.cast(data);
+    }
+
+    public Room getRoom() {
+        return this.room;
+    }
+
+    public int getSpeakerCount() {
+        return this.speakerIds.length;
+    }
+
+    /**
+     * The speaker ids, in ascending order. The index of a speaker in this array is its index in the position arrays.
+     */
+    public int[] getSpeakerIds() {
+        return this.speakerIds.clone();
+    }
+
+    public int getIndex(int speakerId) {
+        Integer index = this.speakerIndexes.get(speakerId);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown speaker id: " + speakerId);
+        }
+        return index;
+    }
+
+    public double getX(int index) {
+        return this.xs[index];
+    }
+
+    public double getY(int index) {
+        return this.ys[index];
+    }
+
+    public double getZ(int index) {
+        return this.zs[index];
+    }
+
+    /**
+     * The center of the speakers (the average position).
+     */
+    public Vector3D getCenter() {
+        return this.center;
+    }
+
+    public Vector3D getMinimum() {
+        return this.minimum;
+    }
+
+    public Vector3D getMaximum() {
+        return this.maximum;
+    }
+
+    /**
+     * The relative volume per speaker id: 1 for the selected speakers, 0 for the others.
+     * The map is calculated once per selection and shared, so it cannot be modified. The speaker selections
+     * come from the actions of the adventure, so there are only as many maps as distinct selections in the script.
+     */
+    public Map<Integer, Double> getVolumes(SpeakerMask speakers) {
+        if (speakers.isAll()) {
+            return this.allSpeakerVolumes;
+        }
+        Map<Integer, Double> volumes = this.maskVolumes.get(speakers);
+        if (volumes == null) {
+            volumes = this.maskVolumes.computeIfAbsent(speakers, this::calculateVolumes);
+        }
+        return volumes;
+    }
+
+    private Map<Integer, Double> calculateVolumes(SpeakerMask speakers) {
+        Map<Integer, Double> volumes = new HashMap<>(this.speakerIds.length * 4 / 3 + 1);
+        for (int index = 0; index < this.speakerIds.length; index++) {
+            volumes.put(this.boxedSpeakerIds[index], speakers.contains(this.speakerIds[index]) ? FULL_VOLUME : NO_VOLUME);
+        }
+        return Collections.unmodifiableMap(volumes);
+    }
+
+    private static double average(double[] values) {
+        return Arrays.stream(values).sum() / values.length;
+    }
+
+    private static double min(double[] values) {
+        return Arrays.stream(values).min().orElse(0);
+    }
+
+    private static double max(double[] values) {
+        return Arrays.stream(values).max().orElse(0);
+    }
+
+}
@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
 import com.programyourhome.immerse.domain.Factory;
 import com.programyourhome.immerse.domain.Scenario;
 import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
@@ -56,6 +57,12 @@ public interface ScenarioBuilder {
 
     public ScenarioBuilder sourceAtSpeakers(Collection<Integer> speakerIds);
 
+    /**
+     * Set the source position to be the selected speakers together.
+     * Preferred over the collection variant for large rooms, since selection is checked without boxing.
+     */
+    public ScenarioBuilder sourceAtSpeakers(SpeakerMask speakers);
+
     /**
      * Set the source position to be all speakers together.
      * This means no direction is taken into account.
@@ -70,6 +77,12 @@ public interface ScenarioBuilder {
     // with static, dynamic speeds and human readable options like walking, running, etc. (where 1 unit is set to 1 match 1 cm or m or ?)
     public Factory<DynamicLocation> atPath(List<Vector3D> path, double unitsPerSecond, boolean loop);
 
+    /**
+     * Move along a smooth curve through the waypoints (a Catmull-Rom spline), at a constant speed along the curve.
+     * A looped path also curves from the last waypoint back to the first.
+     */
+    public Factory<DynamicLocation> atSmoothPath(List<Vector3D> path, double unitsPerSecond, boolean loop);
+
     // TODO: Create circling builder
     public Factory<DynamicLocation> circling(Vector3D center, double startAngle, double radius, double unitsPerSecond, boolean clockwise);
 
@@ -84,6 +97,20 @@ public interface ScenarioBuilder {
 
     public ScenarioBuilder fieldOfHearingVolume(Factory<DynamicLocation> sourceLocation, Factory<DynamicLocation> listenerLocation, double angle);
 
+    /**
+     * When the source and listener of a field of hearing volume are both static locations from this builder,
+     * calculate the speaker volume ratios once here and send them as fixed ratios, instead of letting the mixer
+     * recalculate them for every buffer. Must be set before the field of hearing volume. Default false.
+     */
+    public ScenarioBuilder bakeStaticVolumeRatios(boolean bake);
+
+    /**
+     * Sample circling motions into a position table with the given resolution in millis, which the mixer plays as
+     * looping key frames. Identical motions share their table. Must be set before creating the motion. Default 0 (off).
+     * Only circling is affected: paths already use key frames and static locations do not move.
+     */
+    public ScenarioBuilder sampleTrajectories(long resolutionMillis);
+
     public ScenarioBuilder fixedVolumesRelative(Map<Integer, Double> relativeSpeakerVolumes);
 
     public ScenarioBuilder normalizeVolume();
@@ -107,5 +134,11 @@ public interface ScenarioBuilder {
 
     public ScenarioBuilder playForDuration(Duration duration);
 
+    /**
+     * A new builder with the same settings as this one. Changing either builder does not affect the other one.
+     * Locations created by this builder are not static locations of the copy.
+     */
+    public ScenarioBuilder copy();
+
     public Scenario build();
 }
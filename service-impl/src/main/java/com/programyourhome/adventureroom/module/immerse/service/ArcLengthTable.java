@@ -0,0 +1,77 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.Arrays;
+
+/**
+ * Polyline with the cumulative distance along the line at every point, in primitive arrays.
+ * Positions at a given distance are found with a binary search and linear interpolation, without allocating.
+ */
+public class ArcLengthTable {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final double[] distances;
+
+    public ArcLengthTable(double[] xs, double[] ys, double[] zs) {
+        if (xs.length == 0 || xs.length != ys.length || xs.length != zs.length) {
+            throw new IllegalArgumentException("Coordinate arrays must be non empty and of equal length");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.distances = new double[xs.length];
+        for (int index = 1; index < xs.length; index++) {
+            double dx = xs[index] - xs[index - 1];
+            double dy = ys[index] - ys[index - 1];
+            double dz = zs[index] - zs[index - 1];
+            this.distances[index] = this.distances[index - 1] + Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+
+    public int size() {
+        return this.xs.length;
+    }
+
+    public double getLength() {
+        return this.distances[this.distances.length - 1];
+    }
+
+    /**
+     * The distance along the line at the point with the given index.
+     */
+    public double getDistance(int index) {
+        return this.distances[index];
+    }
+
+    /**
+     * Write the position at the given distance along the line into the target array (x, y, z).
+     * Distances outside of the line are clamped to the start or end.
+     */
+    public void positionAt(double distance, double[] target) {
+        int found = Arrays.binarySearch(this.distances, distance);
+        if (found >= 0) {
+            this.copyPoint(found, target);
+            return;
+        }
+        int next = -found - 1;
+        if (next == 0) {
+            this.copyPoint(0, target);
+        } else if (next == this.distances.length) {
+            this.copyPoint(this.distances.length - 1, target);
+        } else {
+            int previous = next - 1;
+            double fraction = (distance - this.distances[previous]) / (this.distances[next] - this.distances[previous]);
+            target[0] = this.xs[previous] + (this.xs[next] - this.xs[previous]) * fraction;
+            target[1] = this.ys[previous] + (this.ys[next] - this.ys[previous]) * fraction;
+            target[2] = this.zs[previous] + (this.zs[next] - this.zs[previous]) * fraction;
+        }
+    }
+
+    private void copyPoint(int index, double[] target) {
+        target[0] = this.xs[index];
+        target[1] = this.ys[index];
+        target[2] = this.zs[index];
+    }
+
+}
@@ -1,25 +1,96 @@
 package com.programyourhome.adventureroom.module.immerse.service;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.programyourhome.immerse.domain.ImmerseSettings;
 import com.programyourhome.immerse.domain.Scenario;
 import com.programyourhome.immerse.network.client.ImmerseClient;
 
+import one.util.streamex.StreamEx;
+
 public class ImmerseImpl implements Immerse {
 
+    // Threads that send the requests of the asynchronous methods to the Immerse server.
+    public static final String PROPERTY_REQUEST_THREADS = "immerse.client.requestThreads";
+    public static final int DEFAULT_REQUEST_THREADS = 8;
+    // Requests that wait for a free request thread. When the queue is full, the caller sends the request itself.
+    public static final String PROPERTY_REQUEST_QUEUE_SIZE = "immerse.client.requestQueueSize";
+    public static final int DEFAULT_REQUEST_QUEUE_SIZE = 256;
+    private static final long IDLE_THREAD_SECONDS = 60;
+
+    private final ThreadPoolExecutor requestExecutor;
+    private final Map<UUID, CompletableFuture<UUID>> playbackCompletions;
+    private final ScheduledExecutorService fadeOutScheduler;
     private ImmerseClient client;
     private ImmerseSettings settings;
+    private RoomGeometry roomGeometry;
+    private boolean keepMixerForRestart;
+    // The mixer started (or reused) by the last connect, as long as it runs. Also read by the shutdown hook.
+    private volatile StartedMixer startedMixer;
+    private Thread shutdownHook;
+
+    public ImmerseImpl() {
+        int requestThreads = Integer.getInteger(PROPERTY_REQUEST_THREADS, DEFAULT_REQUEST_THREADS);
+        this.requestExecutor = new ThreadPoolExecutor(requestThreads, requestThreads, IDLE_THREAD_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger(PROPERTY_REQUEST_QUEUE_SIZE, DEFAULT_REQUEST_QUEUE_SIZE)),
+                daemonThreadFactory("immerse-request"), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.requestExecutor.allowCoreThreadTimeOut(true);
+        this.playbackCompletions = new ConcurrentHashMap<>();
+        this.fadeOutScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("immerse-fade-out"));
+    }
 
     @Override
     public void connect(ImmerseSettings settings, String host, int port) {
+        this.connect(settings, host, port, false);
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, String host, int port, boolean keepMixerForRestart) {
+        this.connect(settings, RoomGeometry.of(settings.getRoom()), host, port, keepMixerForRestart);
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, RoomGeometry roomGeometry, String host, int port, boolean keepMixerForRestart) {
         this.client = new ImmerseClient(host, port);
-        if (this.client.hasMixer().getResult()) {
+        this.keepMixerForRestart = keepMixerForRestart;
+        if (keepMixerForRestart && this.shutdownHook == null) {
+            // Quit does not stop a kept mixer, so make sure it is stopped when the process ends normally.
+            this.shutdownHook = new Thread(this::shutdown, "immerse-mixer-shutdown");
+            Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+        }
+        boolean hasMixer = this.client.hasMixer().getResult();
+        String server = host + ":" + port;
+        StartedMixer previousMixer = this.startedMixer;
+        if (keepMixerForRestart && hasMixer && previousMixer != null && previousMixer.server.equals(server)) {
+            List<String> differences = MixerSettingsComparison.differences(previousMixer.settings, settings);
+            if (differences.isEmpty()) {
+                this.settings = settings;
+                this.roomGeometry = roomGeometry;
+                System.out.println("Immerse client connection successful, reusing running mixer!");
+                return;
+            }
+            // The client can only create a complete mixer, so any difference means a full rebuild.
+            System.out.println("Immerse mixer configuration changed (" + String.join(", ", differences) + "), recreating mixer");
+        }
+        if (hasMixer) {
             this.client.stopMixer();
         }
         this.client.createMixer(settings);
         this.client.startMixer();
+        this.startedMixer = new StartedMixer(server, settings);
         this.settings = settings;
+        this.roomGeometry = roomGeometry;
         System.out.println("Immerse client connection successful!");
     }
 
@@ -28,9 +99,14 @@ public class ImmerseImpl implements Immerse {
         return this.settings;
     }
 
+    @Override
+    public RoomGeometry getRoomGeometry() {
+        return this.roomGeometry;
+    }
+
     @Override
     public ScenarioBuilder scenarioBuilder() {
-        return new ScenarioBuilderImpl(this.settings);
+        return new ScenarioBuilderImpl(this.settings, this.roomGeometry);
     }
 
     @Override
@@ -38,26 +114,123 @@ public class ImmerseImpl implements Immerse {
         return this.client.playScenario(scenario).getResult();
     }
 
+    @Override
+    public List<UUID> playScenarios(List<Scenario> scenarios) {
+        return this.playScenariosAsync(scenarios).join();
+    }
+
     @Override
     public void waitForPlayback(UUID playbackId) {
-        this.client.waitForPlayback(playbackId);
+        try {
+            this.client.waitForPlayback(playbackId);
+        } catch (RuntimeException e) {
+            this.endPlayback(playbackId, e);
+            throw e;
+        }
+        this.endPlayback(playbackId, null);
     }
 
     @Override
     public void fadeOutPlayback(UUID playbackId, int millis) {
         this.client.fadeOutPlayback(playbackId, millis);
+        // The playback ends when the fade out is done, which the server does not report either.
+        this.fadeOutScheduler.schedule(() -> this.endPlayback(playbackId, null), millis, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void stopPlayback(UUID playbackId) {
         this.client.stopPlayback(playbackId);
+        this.endPlayback(playbackId, null);
+    }
+
+    @Override
+    public CompletableFuture<UUID> playScenarioAsync(Scenario scenario) {
+        return CompletableFuture.supplyAsync(() -> this.playScenario(scenario), this.requestExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> playScenariosAsync(List<Scenario> scenarios) {
+        // The client has no request for multiple scenarios, so send a play request per scenario, all at the same time.
+        // That way starting all of them takes about one round trip instead of one round trip per scenario.
+        List<CompletableFuture<UUID>> playbackIds = StreamEx.of(scenarios).map(this::playScenarioAsync).toList();
+        return CompletableFuture.allOf(playbackIds.toArray(new CompletableFuture<?>[playbackIds.size()]))
+                .thenApply(allDone -> StreamEx.of(playbackIds).map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * The client cannot be notified of the end of a playback and cannot poll for it, it only has a blocking wait.
+     * Instead of holding a thread in that wait for every playback, the future completes when this service sees the
+     * playback end: when it is stopped or faded out through this service, or when a caller of waitForPlayback
+     * returns from its wait for it. Callers that need to know about a natural end wait for it on their own thread.
+     */
+    @Override
+    public CompletableFuture<UUID> playbackCompletion(UUID playbackId) {
+        return this.playbackCompletions.computeIfAbsent(playbackId, id -> new CompletableFuture<>());
+    }
+
+    @Override
+    public CompletableFuture<Void> fadeOutPlaybackAsync(UUID playbackId, int millis) {
+        return CompletableFuture.runAsync(() -> this.fadeOutPlayback(playbackId, millis), this.requestExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> stopPlaybackAsync(UUID playbackId) {
+        return CompletableFuture.runAsync(() -> this.stopPlayback(playbackId), this.requestExecutor);
     }
 
     @Override
     public void quit() {
+        // When kept for a restart, the mixer is left running so the next connect of this service can reuse it.
+        if (!this.keepMixerForRestart) {
+            this.stopMixer();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        // Only a mixer that is still running: after a quit without keeping the mixer, it has been stopped already.
+        if (this.startedMixer != null) {
+            this.stopMixer();
+        }
+    }
+
+    private void stopMixer() {
         if (this.client != null) {
             this.client.stopMixer();
+            this.startedMixer = null;
+            // Stopping the mixer ends all its playbacks.
+            StreamEx.ofKeys(this.playbackCompletions).toList().forEach(playbackId -> this.endPlayback(playbackId, null));
+        }
+    }
+
+    private void endPlayback(UUID playbackId, Throwable exception) {
+        CompletableFuture<UUID> completion = this.playbackCompletions.remove(playbackId);
+        if (completion != null) {
+            if (exception == null) {
+                completion.complete(playbackId);
+            } else {
+                completion.completeExceptionally(exception);
+            }
         }
     }
 
+    private static class StartedMixer {
+        private final String server;
+        private final ImmerseSettings settings;
+
+        public StartedMixer(String server, ImmerseSettings settings) {
+            this.server = server;
+            this.settings = settings;
+        }
+    }
+
+    static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
 }
@@ -0,0 +1,81 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.programyourhome.immerse.domain.ImmerseSettings;
+import com.programyourhome.immerse.domain.Room;
+import com.programyourhome.immerse.domain.audio.soundcard.SoundCard;
+import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
+import com.programyourhome.immerse.domain.location.Vector3D;
+import com.programyourhome.immerse.domain.speakers.Speaker;
+
+import one.util.streamex.StreamEx;
+
+/**
+ * Compares the parts of two Immerse settings that determine the mixer configuration.
+ * Equivalence is based on the values, not on object identity, so settings built on another adventure start can be compared.
+ */
+class MixerSettingsComparison {
+
+    public static final String ROOM = "room";
+    public static final String SOUND_CARDS = "sound cards";
+    public static final String OUTPUT_FORMAT = "output format";
+
+    private MixerSettingsComparison() {
+    }
+
+    /**
+     * The names of the parts that differ between the two settings, empty if the settings are equivalent.
+     */
+    public static List<String> differences(ImmerseSettings current, ImmerseSettings wanted) {
+        List<String> differences = new ArrayList<>();
+        if (!equivalentRooms(current.getRoom(), wanted.getRoom())) {
+            differences.add(ROOM);
+        }
+        if (!equivalentSoundCards(current.getSoundCards(), wanted.getSoundCards())) {
+            differences.add(SOUND_CARDS);
+        }
+        if (!equivalentOutputFormats(current.getOutputFormat(), wanted.getOutputFormat())) {
+            differences.add(OUTPUT_FORMAT);
+        }
+        return differences;
+    }
+
+    private static boolean equivalentRooms(Room current, Room wanted) {
+        Map<Integer, Speaker> currentSpeakers = current.getSpeakers();
+        Map<Integer, Speaker> wantedSpeakers = wanted.getSpeakers();
+        return Objects.equals(current.getName(), wanted.getName())
+                && equivalentVectors(current.getDimensions(), wanted.getDimensions())
+                && currentSpeakers.keySet().equals(wantedSpeakers.keySet())
+                && StreamEx.ofKeys(currentSpeakers).allMatch(speakerId -> equivalentSpeakers(currentSpeakers.get(speakerId), wantedSpeakers.get(speakerId)));
+    }
+
+    private static boolean equivalentSpeakers(Speaker current, Speaker wanted) {
+        return current.getId() == wanted.getId()
+                && Objects.equals(current.getName(), wanted.getName())
+                && equivalentVectors(current.getPosition(), wanted.getPosition());
+    }
+
+    private static boolean equivalentSoundCards(Set<SoundCard> current, Set<SoundCard> wanted) {
+        return current.size() == wanted.size()
+                && StreamEx.of(current).allMatch(currentSoundCard -> StreamEx.of(wanted).anyMatch(wantedSoundCard -> currentSoundCard.getId() == wantedSoundCard.getId()
+                        && Objects.equals(currentSoundCard.getName(), wantedSoundCard.getName())));
+    }
+
+    private static boolean equivalentOutputFormats(ImmerseAudioFormat current, ImmerseAudioFormat wanted) {
+        return current.getRecordingMode() == wanted.getRecordingMode()
+                && current.getSampleRate() == wanted.getSampleRate()
+                && current.getSampleSize() == wanted.getSampleSize()
+                && current.getByteOrder() == wanted.getByteOrder()
+                && current.isSigned() == wanted.isSigned();
+    }
+
+    private static boolean equivalentVectors(Vector3D current, Vector3D wanted) {
+        return current.getX() == wanted.getX() && current.getY() == wanted.getY() && current.getZ() == wanted.getZ();
+    }
+
+}
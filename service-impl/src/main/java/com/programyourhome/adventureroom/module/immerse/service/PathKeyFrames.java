@@ -0,0 +1,177 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.programyourhome.immerse.domain.location.Vector3D;
+
+/**
+ * Calculates the key frames (time in millis to location) of moving along a path at a constant speed.
+ * The path is either the straight lines between the waypoints, or a Catmull-Rom spline through the waypoints,
+ * resampled at equal distances so the speed along the curve is constant as well. A looped path ends where it started.
+ * Results are cached per path, so a script that plays the same path again reuses the key frames.
+ */
+public class PathKeyFrames {
+
+    private static final int MAX_CACHE_SIZE = 256;
+    // Spline points calculated per segment between two waypoints, to measure the length of the curve.
+    private static final int SPLINE_SAMPLES_PER_SEGMENT = 32;
+    // Key frames per segment between two waypoints of a smooth path, the mixer interpolates linearly in between.
+    private static final int SPLINE_KEY_FRAMES_PER_SEGMENT = 8;
+
+    private static final Map<PathKey, SortedMap<Long, Vector3D>> CACHE = new LinkedHashMap<PathKey, SortedMap<Long, Vector3D>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PathKey, SortedMap<Long, Vector3D>> eldest) {
+            return this.size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    private PathKeyFrames() {
+    }
+
+    /**
+     * The key frames for the path, from the cache if calculated before. The result cannot be modified.
+     */
+    public static SortedMap<Long, Vector3D> keyFrames(List<Vector3D> waypoints, double unitsPerSecond, boolean loop, boolean smooth) {
+        PathKey key = new PathKey(waypoints, unitsPerSecond, loop, smooth);
+        synchronized (CACHE) {
+            SortedMap<Long, Vector3D> keyFrames = CACHE.get(key);
+            if (keyFrames != null) {
+                return keyFrames;
+            }
+        }
+        SortedMap<Long, Vector3D> keyFrames = calculateKeyFrames(waypoints, unitsPerSecond, loop, smooth);
+        synchronized (CACHE) {
+            CACHE.put(key, keyFrames);
+        }
+        return keyFrames;
+    }
+
+    /**
+     * Calculate the key frames for the path, without using the cache.
+     */
+    public static SortedMap<Long, Vector3D> calculateKeyFrames(List<Vector3D> waypoints, double unitsPerSecond, boolean loop, boolean smooth) {
+        if (waypoints.isEmpty()) {
+            throw new IllegalArgumentException("path cannot be empty");
+        }
+        SortedMap<Long, Vector3D> keyFrames = smooth && waypoints.size() > 2
+                ? smoothKeyFrames(waypoints, unitsPerSecond, loop)
+                : linearKeyFrames(waypoints, unitsPerSecond, loop);
+        return Collections.unmodifiableSortedMap(keyFrames);
+    }
+
+    private static SortedMap<Long, Vector3D> linearKeyFrames(List<Vector3D> waypoints, double unitsPerSecond, boolean loop) {
+        int pointCount = loop && waypoints.size() > 1 ? waypoints.size() + 1 : waypoints.size();
+        double[] xs = new double[pointCount];
+        double[] ys = new double[pointCount];
+        double[] zs = new double[pointCount];
+        for (int index = 0; index < pointCount; index++) {
+            Vector3D waypoint = waypoints.get(index % waypoints.size());
+            xs[index] = waypoint.getX();
+            ys[index] = waypoint.getY();
+            zs[index] = waypoint.getZ();
+        }
+        ArcLengthTable table = new ArcLengthTable(xs, ys, zs);
+        SortedMap<Long, Vector3D> keyFrames = new TreeMap<>();
+        for (int index = 0; index < pointCount; index++) {
+            keyFrames.put(toMillis(table.getDistance(index), unitsPerSecond), waypoints.get(index % waypoints.size()));
+        }
+        return keyFrames;
+    }
+
+    private static SortedMap<Long, Vector3D> smoothKeyFrames(List<Vector3D> waypoints, double unitsPerSecond, boolean loop) {
+        int waypointCount = waypoints.size();
+        int segmentCount = loop ? waypointCount : waypointCount - 1;
+        int sampleCount = segmentCount * SPLINE_SAMPLES_PER_SEGMENT + 1;
+        double[] xs = new double[sampleCount];
+        double[] ys = new double[sampleCount];
+        double[] zs = new double[sampleCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            Vector3D p0 = controlPoint(waypoints, segment - 1, loop);
+            Vector3D p1 = controlPoint(waypoints, segment, loop);
+            Vector3D p2 = controlPoint(waypoints, segment + 1, loop);
+            Vector3D p3 = controlPoint(waypoints, segment + 2, loop);
+            for (int sample = 0; sample < SPLINE_SAMPLES_PER_SEGMENT; sample++) {
+                double t = (double) sample / SPLINE_SAMPLES_PER_SEGMENT;
+                int index = segment * SPLINE_SAMPLES_PER_SEGMENT + sample;
+                xs[index] = catmullRom(p0.getX(), p1.getX(), p2.getX(), p3.getX(), t);
+                ys[index] = catmullRom(p0.getY(), p1.getY(), p2.getY(), p3.getY(), t);
+                zs[index] = catmullRom(p0.getZ(), p1.getZ(), p2.getZ(), p3.getZ(), t);
+            }
+        }
+        Vector3D end = controlPoint(waypoints, segmentCount, loop);
+        xs[sampleCount - 1] = end.getX();
+        ys[sampleCount - 1] = end.getY();
+        zs[sampleCount - 1] = end.getZ();
+
+        ArcLengthTable table = new ArcLengthTable(xs, ys, zs);
+        int keyFrameCount = segmentCount * SPLINE_KEY_FRAMES_PER_SEGMENT;
+        double[] position = new double[3];
+        SortedMap<Long, Vector3D> keyFrames = new TreeMap<>();
+        for (int keyFrame = 0; keyFrame <= keyFrameCount; keyFrame++) {
+            // Equal distances at equal time steps: constant speed along the curve.
+            double distance = table.getLength() * keyFrame / keyFrameCount;
+            table.positionAt(distance, position);
+            keyFrames.put(toMillis(distance, unitsPerSecond), new Vector3D(position[0], position[1], position[2]));
+        }
+        return keyFrames;
+    }
+
+    /**
+     * The waypoint with the given index, wrapped around for a loop and clamped to the first and last waypoint otherwise.
+     */
+    private static Vector3D controlPoint(List<Vector3D> waypoints, int index, boolean loop) {
+        int size = waypoints.size();
+        if (loop) {
+            return waypoints.get(Math.floorMod(index, size));
+        }
+        return waypoints.get(Math.max(0, Math.min(size - 1, index)));
+    }
+
+    private static double catmullRom(double p0, double p1, double p2, double p3, double t) {
+        double t2 = t * t;
+        double t3 = t2 * t;
+        return 0.5 * (2 * p1 + (p2 - p0) * t + (2 * p0 - 5 * p1 + 4 * p2 - p3) * t2 + (3 * p1 - p0 - 3 * p2 + p3) * t3);
+    }
+
+    private static long toMillis(double distance, double unitsPerSecond) {
+        return Math.round(distance / unitsPerSecond * 1000);
+    }
+
+    private static class PathKey {
+        private final List<Vector3D> waypoints;
+        private final double unitsPerSecond;
+        private final boolean loop;
+        private final boolean smooth;
+
+        public PathKey(List<Vector3D> waypoints, double unitsPerSecond, boolean loop, boolean smooth) {
+            this.waypoints = waypoints;
+            this.unitsPerSecond = unitsPerSecond;
+            this.loop = loop;
+            this.smooth = smooth;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof PathKey)) {
+                return false;
+            }
+            PathKey otherKey = (PathKey) other;
+            return this.waypoints.equals(otherKey.waypoints) && this.unitsPerSecond == otherKey.unitsPerSecond
+                    && this.loop == otherKey.loop && this.smooth == otherKey.smooth;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.waypoints, this.unitsPerSecond, this.loop, this.smooth);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.programyourhome.immerse.domain.Factory;
+import com.programyourhome.immerse.domain.location.Vector3D;
+import com.programyourhome.immerse.domain.location.dynamic.DynamicLocation;
+
+/**
+ * Position tables for periodic motions, sampled at a fixed time resolution on the client. Played as looping key frames,
+ * the mixer interpolates between table entries instead of evaluating the motion (like the trigonometry of a circle)
+ * for every location query. Tables are cached per motion and resolution, so identical motions share one table.
+ */
+class SampledTrajectories {
+
+    private static final int MAX_CACHE_SIZE = 256;
+    private static final int MIN_SAMPLES = 16;
+    private static final int MAX_SAMPLES = 3600;
+
+    private static final Map<Object, SortedMap<Long, Vector3D>> CACHE = new LinkedHashMap<Object, SortedMap<Long, Vector3D>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, SortedMap<Long, Vector3D>> eldest) {
+            return this.size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    private SampledTrajectories() {
+    }
+
+    /**
+     * The looping key frames of one period of the motion, sampled about every resolution millis.
+     * The key is the identity of the motion: equal keys must describe equal motions.
+     */
+    public static SortedMap<Long, Vector3D> periodic(Object motionKey, Factory<DynamicLocation> motion, double periodMillis, long resolutionMillis) {
+        CacheKey key = new CacheKey(motionKey, resolutionMillis);
+        synchronized (CACHE) {
+            SortedMap<Long, Vector3D> keyFrames = CACHE.get(key);
+            if (keyFrames != null) {
+                return keyFrames;
+            }
+        }
+        SortedMap<Long, Vector3D> keyFrames = sample(motion.create(), periodMillis, resolutionMillis);
+        synchronized (CACHE) {
+            CACHE.put(key, keyFrames);
+        }
+        return keyFrames;
+    }
+
+    private static SortedMap<Long, Vector3D> sample(DynamicLocation location, double periodMillis, long resolutionMillis) {
+        int samples = (int) Math.max(MIN_SAMPLES, Math.min(MAX_SAMPLES, Math.round(periodMillis / resolutionMillis)));
+        SortedMap<Long, Vector3D> keyFrames = new TreeMap<>();
+        for (int sample = 0; sample < samples; sample++) {
+            long millis = Math.round(periodMillis * sample / samples);
+            keyFrames.put(millis, location.getLocation(millis));
+        }
+        // Close the loop with the start location, so the table wraps around seamlessly.
+        keyFrames.put(Math.round(periodMillis), keyFrames.get(0L));
+        return Collections.unmodifiableSortedMap(keyFrames);
+    }
+
+    private static class CacheKey {
+        private final Object motionKey;
+        private final long resolutionMillis;
+
+        public CacheKey(Object motionKey, long resolutionMillis) {
+            this.motionKey = motionKey;
+            this.resolutionMillis = resolutionMillis;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey otherKey = (CacheKey) other;
+            return this.motionKey.equals(otherKey.motionKey) && this.resolutionMillis == otherKey.resolutionMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.motionKey, this.resolutionMillis);
+        }
+    }
+
+}
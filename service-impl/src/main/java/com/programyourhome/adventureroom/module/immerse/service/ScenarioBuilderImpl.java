@@ -3,24 +3,26 @@ package com.programyourhome.adventureroom.module.immerse.service;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.function.ToDoubleFunction;
-
-import org.la4j.Vectors;
+import java.util.Optional;
 
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
 import com.programyourhome.immerse.domain.Factory;
 import com.programyourhome.immerse.domain.ImmerseSettings;
 import com.programyourhome.immerse.domain.Scenario;
 import com.programyourhome.immerse.domain.ScenarioSettings;
+import com.programyourhome.immerse.domain.audio.playback.Playback;
 import com.programyourhome.immerse.domain.audio.resource.AudioFileType;
+import com.programyourhome.immerse.domain.audio.resource.AudioResource;
 import com.programyourhome.immerse.domain.format.ImmerseAudioFormat;
 import com.programyourhome.immerse.domain.location.Vector3D;
 import com.programyourhome.immerse.domain.location.dynamic.DynamicLocation;
-import com.programyourhome.immerse.domain.speakers.Speaker;
 import com.programyourhome.immerse.domain.speakers.SpeakerVolumeRatios;
+import com.programyourhome.immerse.domain.speakers.algorithms.normalize.NormalizeAlgorithm;
+import com.programyourhome.immerse.domain.speakers.algorithms.volumeratios.VolumeRatiosAlgorithm;
+import com.programyourhome.immerse.domain.volume.DynamicVolume;
 import com.programyourhome.immerse.toolbox.audio.playback.ForeverPlayback;
 import com.programyourhome.immerse.toolbox.audio.playback.LoopPlayback;
 import com.programyourhome.immerse.toolbox.audio.playback.TimerPlayback;
@@ -29,131 +31,156 @@ import com.programyourhome.immerse.toolbox.audio.resource.UrlAudioResource;
 import com.programyourhome.immerse.toolbox.location.dynamic.FixedDynamicLocation;
 import com.programyourhome.immerse.toolbox.location.dynamic.HorizontalCircleDynamicLocation;
 import com.programyourhome.immerse.toolbox.location.dynamic.KeyFramesDynamicLocation;
-import com.programyourhome.immerse.toolbox.speakers.algorithms.normalize.FractionalNormalizeAlgorithm;
 import com.programyourhome.immerse.toolbox.speakers.algorithms.normalize.MaxSumNormalizeAlgorithm;
 import com.programyourhome.immerse.toolbox.speakers.algorithms.volumeratios.FieldOfHearingVolumeRatiosAlgorithm;
 import com.programyourhome.immerse.toolbox.speakers.algorithms.volumeratios.FixedVolumeRatiosAlgorithm;
 import com.programyourhome.immerse.toolbox.volume.dynamic.FixedDynamicVolume;
 import com.programyourhome.immerse.toolbox.volume.dynamic.LinearDynamicVolume;
 
-import one.util.streamex.StreamEx;
-
+/**
+ * Scenario builder that only records the settings that differ from the shared defaults of the room.
+ * The Immerse scenario and its settings are assembled on build, falling back to the defaults prototype
+ * for everything that was not overridden.
+ */
 public class ScenarioBuilderImpl implements ScenarioBuilder {
 
+    private static final String DEFAULT_NAME = "Builder Scenario";
+    private static final String DEFAULT_DESCRIPTION = "Scenario built by the ScenarioBuilder";
+
     private final ImmerseSettings immerseSettings;
-    private final Scenario.Builder immerseScenarioBuilder;
-    private final ScenarioSettings.Builder immerseScenarioSettingsBuilder;
+    private final RoomGeometry roomGeometry;
+    private final ScenarioDefaults defaults;
+    private String name;
+    private String description;
+    // The settings below are null as long as the default of the prototype applies.
+    private Factory<AudioResource> audioResource;
+    private Factory<DynamicVolume> volume;
+    private Factory<VolumeRatiosAlgorithm> volumeRatiosAlgorithm;
+    private Factory<NormalizeAlgorithm> normalizeAlgorithm;
+    private Factory<Playback> playback;
+    // The locations created by this builder that never move, to recognize fully static field of hearing volumes.
+    // Created on first use, most scenarios never need it.
+    private Map<Factory<DynamicLocation>, Vector3D> staticLocations;
+    private boolean bakeStaticVolumeRatios;
+    private long trajectorySampleMillis;
 
     public ScenarioBuilderImpl(ImmerseSettings immerseSettings) {
+        this(immerseSettings, RoomGeometry.of(immerseSettings.getRoom()));
+    }
+
+    public ScenarioBuilderImpl(ImmerseSettings immerseSettings, RoomGeometry roomGeometry) {
         this.immerseSettings = immerseSettings;
-        this.immerseScenarioBuilder = Scenario.builder()
-                .name("Builder Scenario")
-                .description("Scenario built by the ScenarioBuilder");
-        this.immerseScenarioSettingsBuilder = ScenarioSettings.builder();
-        this.fullVolume();
-        this.sourceAtAllSpeakers();
-        this.normalizeVolume();
-        this.playOnce();
+        this.roomGeometry = roomGeometry;
+        this.defaults = ScenarioDefaults.of(roomGeometry);
+        this.name = DEFAULT_NAME;
+        this.description = DEFAULT_DESCRIPTION;
+        this.bakeStaticVolumeRatios = false;
+        this.trajectorySampleMillis = 0;
     }
 
     @Override
     public ScenarioBuilder name(String name) {
-        this.immerseScenarioBuilder.name(name);
+        this.name = name;
         return this;
     }
 
     @Override
     public ScenarioBuilder description(String name) {
-        this.immerseScenarioBuilder.description(name);
+        this.description = name;
         return this;
     }
 
     @Override
     public ScenarioBuilder file(String path) {
-        this.immerseScenarioSettingsBuilder.audioResource(FileAudioResource.file(path));
+        this.audioResource = FileAudioResource.file(path);
         return this;
     }
 
     @Override
     public ScenarioBuilder urlWithFormat(String url, ImmerseAudioFormat format) {
-        this.immerseScenarioSettingsBuilder.audioResource(UrlAudioResource.urlWithFormat(url, format));
+        this.audioResource = UrlAudioResource.urlWithFormat(url, format);
         return this;
     }
 
     @Override
     public ScenarioBuilder urlWithType(String url, AudioFileType type) {
-        this.immerseScenarioSettingsBuilder.audioResource(UrlAudioResource.urlWithType(url, type));
+        this.audioResource = UrlAudioResource.urlWithType(url, type);
         return this;
     }
 
     @Override
     public ScenarioBuilder volume(double volume) {
-        this.immerseScenarioSettingsBuilder.volume(FixedDynamicVolume.fixed(volume));
+        this.volume = FixedDynamicVolume.fixed(volume);
         return this;
     }
 
     @Override
     public ScenarioBuilder fullVolume() {
-        this.immerseScenarioSettingsBuilder.volume(FixedDynamicVolume.full());
+        this.volume = null;
         return this;
     }
 
     @Override
     public ScenarioBuilder muteVolume() {
-        this.immerseScenarioSettingsBuilder.volume(FixedDynamicVolume.mute());
+        this.volume = FixedDynamicVolume.mute();
         return this;
     }
 
     @Override
     public ScenarioBuilder linearVolume(double from, double to, long inMillis) {
-        this.immerseScenarioSettingsBuilder.volume(LinearDynamicVolume.linear(from, to, inMillis, true));
+        this.volume = LinearDynamicVolume.linear(from, to, inMillis, true);
         return this;
     }
 
     @Override
     public ScenarioBuilder linearVolumeWithDelay(double from, double to, long inMillis, long delayMillis) {
-        this.immerseScenarioSettingsBuilder.volume(LinearDynamicVolume.linearWithDelay(from, to, inMillis, true, delayMillis));
+        this.volume = LinearDynamicVolume.linearWithDelay(from, to, inMillis, true, delayMillis);
         return this;
     }
 
     @Override
     public ScenarioBuilder sourceAtSpeaker(int speakerId) {
-        return this.sourceAtSpeakers(Arrays.asList(speakerId));
+        return this.sourceAtSpeakers(SpeakerMask.of(speakerId));
     }
 
     @Override
     public ScenarioBuilder sourceAtSpeakers(Collection<Integer> speakerIds) {
-        return this.fixedVolumesRelative(this.volumeAtSpeakers(speakerIds));
+        return this.sourceAtSpeakers(SpeakerMask.of(speakerIds));
+    }
+
+    @Override
+    public ScenarioBuilder sourceAtSpeakers(SpeakerMask speakers) {
+        if (speakers.isAll()) {
+            return this.sourceAtAllSpeakers();
+        }
+        return this.fixedVolumesRelative(this.roomGeometry.getVolumes(speakers));
     }
 
     @Override
     public ScenarioBuilder sourceAtAllSpeakers() {
-        return this.sourceAtSpeakers(this.immerseSettings.getRoom().getSpeakers().keySet());
+        this.volumeRatiosAlgorithm = null;
+        return this;
     }
 
     @Override
     public Factory<DynamicLocation> atLocation(Vector3D location) {
-        return FixedDynamicLocation.fixed(location);
+        Factory<DynamicLocation> fixedLocation = FixedDynamicLocation.fixed(location);
+        if (this.staticLocations == null) {
+            this.staticLocations = new IdentityHashMap<>();
+        }
+        this.staticLocations.put(fixedLocation, location);
+        return fixedLocation;
     }
 
     // TODO: unit test this!
     @Override
     public Factory<DynamicLocation> atPath(List<Vector3D> path, double unitsPerSecond, boolean loop) {
-        if (path.isEmpty()) {
-            throw new IllegalArgumentException("path cannot be empty");
-        }
-        SortedMap<Long, Vector3D> keyFrames = new TreeMap<>();
-        double travelTimeSoFar = 0;
-        keyFrames.put(Math.round(travelTimeSoFar), path.get(0));
-        for (int i = 1; i < path.size(); i++) {
-            Vector3D previousPoint = path.get(i - 1);
-            Vector3D nextPoint = path.get(i);
-            double distance = previousPoint.toLa4j().subtract(nextPoint.toLa4j()).fold(Vectors.mkEuclideanNormAccumulator());
-            double travelTimeInMillis = distance / unitsPerSecond * 1000;
-            travelTimeSoFar += travelTimeInMillis;
-            keyFrames.put(Math.round(travelTimeSoFar), nextPoint);
-        }
-        return KeyFramesDynamicLocation.keyFrames(keyFrames, loop);
+        return KeyFramesDynamicLocation.keyFrames(PathKeyFrames.keyFrames(path, unitsPerSecond, loop, false), loop);
+    }
+
+    @Override
+    public Factory<DynamicLocation> atSmoothPath(List<Vector3D> path, double unitsPerSecond, boolean loop) {
+        return KeyFramesDynamicLocation.keyFrames(PathKeyFrames.keyFrames(path, unitsPerSecond, loop, true), loop);
     }
 
     // TODO: unit test
@@ -161,99 +188,142 @@ public class ScenarioBuilderImpl implements ScenarioBuilder {
     public Factory<DynamicLocation> circling(Vector3D center, double startAngle, double radius, double unitsPerSecond, boolean clockwise) {
         double circumference = 2 * Math.PI * radius;
         double millisPerFullCircle = circumference / unitsPerSecond * 1000;
-        return HorizontalCircleDynamicLocation.horizontalCircle(center, startAngle, radius, clockwise, millisPerFullCircle);
+        Factory<DynamicLocation> circle = HorizontalCircleDynamicLocation.horizontalCircle(center, startAngle, radius, clockwise, millisPerFullCircle);
+        if (this.trajectorySampleMillis <= 0) {
+            return circle;
+        }
+        List<Object> motionKey = Arrays.asList("circle", center.getX(), center.getY(), center.getZ(), startAngle, radius, clockwise, millisPerFullCircle);
+        return KeyFramesDynamicLocation.keyFrames(SampledTrajectories.periodic(motionKey, circle, millisPerFullCircle, this.trajectorySampleMillis), true);
     }
 
     @Override
     public Factory<DynamicLocation> atCenter() {
-        return this.calculateCenterOfRoom();
+        return this.atLocation(this.roomGeometry.getCenter());
     }
 
     @Override
     public ScenarioBuilder fieldOfHearingVolume(Factory<DynamicLocation> sourceLocation, Factory<DynamicLocation> listenerLocation) {
-        this.immerseScenarioSettingsBuilder.volumeRatiosAlgorithm(
-                FieldOfHearingVolumeRatiosAlgorithm.fieldOfHearing(this.immerseSettings.getRoom(), sourceLocation, listenerLocation));
+        if (this.isBakeable(sourceLocation, listenerLocation)) {
+            return this.bakedFieldOfHearingVolume(sourceLocation, listenerLocation, Optional.empty());
+        }
+        this.volumeRatiosAlgorithm =
+                FieldOfHearingVolumeRatiosAlgorithm.fieldOfHearing(this.immerseSettings.getRoom(), sourceLocation, listenerLocation);
         return this;
     }
 
     @Override
     public ScenarioBuilder fieldOfHearingVolume(Factory<DynamicLocation> sourceLocation, Factory<DynamicLocation> listenerLocation, double angle) {
-        this.immerseScenarioSettingsBuilder.volumeRatiosAlgorithm(
-                FieldOfHearingVolumeRatiosAlgorithm.fieldOfHearing(this.immerseSettings.getRoom(), sourceLocation, listenerLocation, angle));
+        if (this.isBakeable(sourceLocation, listenerLocation)) {
+            return this.bakedFieldOfHearingVolume(sourceLocation, listenerLocation, Optional.of(angle));
+        }
+        this.volumeRatiosAlgorithm =
+                FieldOfHearingVolumeRatiosAlgorithm.fieldOfHearing(this.immerseSettings.getRoom(), sourceLocation, listenerLocation, angle);
+        return this;
+    }
+
+    @Override
+    public ScenarioBuilder bakeStaticVolumeRatios(boolean bake) {
+        this.bakeStaticVolumeRatios = bake;
+        return this;
+    }
+
+    @Override
+    public ScenarioBuilder sampleTrajectories(long resolutionMillis) {
+        this.trajectorySampleMillis = resolutionMillis;
         return this;
     }
 
     @Override
     public ScenarioBuilder fixedVolumesRelative(Map<Integer, Double> relativeSpeakerVolumes) {
-        this.immerseScenarioSettingsBuilder.volumeRatiosAlgorithm(FixedVolumeRatiosAlgorithm.fixed(new SpeakerVolumeRatios(relativeSpeakerVolumes)));
+        this.volumeRatiosAlgorithm = FixedVolumeRatiosAlgorithm.fixed(new SpeakerVolumeRatios(relativeSpeakerVolumes));
         return this;
     }
 
     @Override
     public ScenarioBuilder normalizeVolume() {
-        this.immerseScenarioSettingsBuilder.normalizeAlgorithm(FractionalNormalizeAlgorithm.fractional());
+        this.normalizeAlgorithm = null;
         return this;
     }
 
     @Override
     public ScenarioBuilder volumeAsOneSpeaker() {
-        this.immerseScenarioSettingsBuilder.normalizeAlgorithm(MaxSumNormalizeAlgorithm.maxSum(1));
+        this.normalizeAlgorithm = MaxSumNormalizeAlgorithm.maxSum(1);
         return this;
     }
 
     @Override
     public ScenarioBuilder maxSumVolume(double maxSum) {
-        this.immerseScenarioSettingsBuilder.normalizeAlgorithm(MaxSumNormalizeAlgorithm.maxSum(maxSum));
+        this.normalizeAlgorithm = MaxSumNormalizeAlgorithm.maxSum(maxSum);
         return this;
     }
 
     @Override
     public ScenarioBuilder playOnce() {
-        this.immerseScenarioSettingsBuilder.playback(LoopPlayback.once());
+        this.playback = null;
         return this;
     }
 
     @Override
     public ScenarioBuilder playRepeat(int times) {
-        this.immerseScenarioSettingsBuilder.playback(LoopPlayback.times(times));
+        this.playback = LoopPlayback.times(times);
         return this;
     }
 
     @Override
     public ScenarioBuilder playRepeatForever() {
-        this.immerseScenarioSettingsBuilder.playback(ForeverPlayback.forever());
+        this.playback = ForeverPlayback.forever();
         return this;
     }
 
     @Override
     public ScenarioBuilder playForDuration(Duration duration) {
-        this.immerseScenarioSettingsBuilder.playback(TimerPlayback.timer(duration.toMillis()));
+        this.playback = TimerPlayback.timer(duration.toMillis());
         return this;
     }
 
     @Override
-    public Scenario build() {
-        return this.immerseScenarioBuilder.settings(this.immerseScenarioSettingsBuilder.build()).build();
-    }
-
-    private Factory<DynamicLocation> calculateCenterOfRoom() {
-        return FixedDynamicLocation.fixed(
-                this.calculateCenterOfAxis(Vector3D::getX),
-                this.calculateCenterOfAxis(Vector3D::getY),
-                this.calculateCenterOfAxis(Vector3D::getZ));
-    }
-
-    private double calculateCenterOfAxis(ToDoubleFunction<Vector3D> axisValueFunction) {
-        Collection<Speaker> speakers = this.immerseSettings.getRoom().getSpeakers().values();
-        return StreamEx.of(speakers)
-                .map(Speaker::getPosition)
-                .mapToDouble(axisValueFunction)
-                .sum() / speakers.size();
+    public ScenarioBuilder copy() {
+        ScenarioBuilderImpl copy = new ScenarioBuilderImpl(this.immerseSettings, this.roomGeometry);
+        copy.name = this.name;
+        copy.description = this.description;
+        copy.audioResource = this.audioResource;
+        copy.volume = this.volume;
+        copy.volumeRatiosAlgorithm = this.volumeRatiosAlgorithm;
+        copy.normalizeAlgorithm = this.normalizeAlgorithm;
+        copy.playback = this.playback;
+        copy.bakeStaticVolumeRatios = this.bakeStaticVolumeRatios;
+        copy.trajectorySampleMillis = this.trajectorySampleMillis;
+        return copy;
     }
 
-    private Map<Integer, Double> volumeAtSpeakers(Collection<Integer> speakerIds) {
-        return StreamEx.of(this.immerseSettings.getRoom().getSpeakers().keySet())
-                .toMap(speakerId -> speakerId, speakerId -> speakerIds.contains(speakerId) ? 1.0 : 0.0);
+    @Override
+    public Scenario build() {
+        ScenarioSettings.Builder settingsBuilder = ScenarioSettings.builder();
+        if (this.audioResource != null) {
+            settingsBuilder.audioResource(this.audioResource);
+        }
+        settingsBuilder.volume(this.volume != null ? this.volume : this.defaults.getVolume());
+        settingsBuilder.volumeRatiosAlgorithm(this.volumeRatiosAlgorithm != null ? this.volumeRatiosAlgorithm : this.defaults.getVolumeRatiosAlgorithm());
+        settingsBuilder.normalizeAlgorithm(this.normalizeAlgorithm != null ? this.normalizeAlgorithm : this.defaults.getNormalizeAlgorithm());
+        settingsBuilder.playback(this.playback != null ? this.playback : this.defaults.getPlayback());
+        return Scenario.builder()
+                .name(this.name)
+                .description(this.description)
+                .settings(settingsBuilder.build())
+                .build();
+    }
+
+    private boolean isBakeable(Factory<DynamicLocation> sourceLocation, Factory<DynamicLocation> listenerLocation) {
+        return this.bakeStaticVolumeRatios && this.staticLocations != null
+                && this.staticLocations.containsKey(sourceLocation) && this.staticLocations.containsKey(listenerLocation);
+    }
+
+    private ScenarioBuilder bakedFieldOfHearingVolume(Factory<DynamicLocation> sourceLocation, Factory<DynamicLocation> listenerLocation,
+            Optional<Double> angle) {
+        SpeakerVolumeRatios ratios = StaticVolumeRatios.fieldOfHearing(this.immerseSettings.getRoom(),
+                this.staticLocations.get(sourceLocation), this.staticLocations.get(listenerLocation), angle);
+        this.volumeRatiosAlgorithm = FixedVolumeRatiosAlgorithm.fixed(ratios);
+        return this;
     }
 
 }
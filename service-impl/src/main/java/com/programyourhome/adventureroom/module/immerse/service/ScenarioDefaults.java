@@ -0,0 +1,54 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import com.programyourhome.adventureroom.module.immerse.model.SpeakerMask;
+import com.programyourhome.immerse.domain.Factory;
+import com.programyourhome.immerse.domain.audio.playback.Playback;
+import com.programyourhome.immerse.domain.speakers.SpeakerVolumeRatios;
+import com.programyourhome.immerse.domain.speakers.algorithms.normalize.NormalizeAlgorithm;
+import com.programyourhome.immerse.domain.speakers.algorithms.volumeratios.VolumeRatiosAlgorithm;
+import com.programyourhome.immerse.domain.volume.DynamicVolume;
+import com.programyourhome.immerse.toolbox.audio.playback.LoopPlayback;
+import com.programyourhome.immerse.toolbox.speakers.algorithms.normalize.FractionalNormalizeAlgorithm;
+import com.programyourhome.immerse.toolbox.speakers.algorithms.volumeratios.FixedVolumeRatiosAlgorithm;
+import com.programyourhome.immerse.toolbox.volume.dynamic.FixedDynamicVolume;
+
+/**
+ * Immutable prototype with the default settings of a scenario: full volume, source at all speakers, normalized
+ * volume and played once. The factories are created once per room geometry and kept on it, shared by every scenario
+ * builder, so a builder only allocates the settings that are actually overridden.
+ */
+class ScenarioDefaults {
+
+    private final Factory<DynamicVolume> volume;
+    private final Factory<VolumeRatiosAlgorithm> volumeRatiosAlgorithm;
+    private final Factory<NormalizeAlgorithm> normalizeAlgorithm;
+    private final Factory<Playback> playback;
+
+    private ScenarioDefaults(RoomGeometry roomGeometry) {
+        this.volume = FixedDynamicVolume.full();
+        this.volumeRatiosAlgorithm = FixedVolumeRatiosAlgorithm.fixed(new SpeakerVolumeRatios(roomGeometry.getVolumes(SpeakerMask.all())));
+        this.normalizeAlgorithm = FractionalNormalizeAlgorithm.fractional();
+        this.playback = LoopPlayback.once();
+    }
+
+    public static ScenarioDefaults of(RoomGeometry roomGeometry) {
+        return roomGeometry.getDerived(ScenarioDefaults.class, ScenarioDefaults::new);
+    }
+
+    public Factory<DynamicVolume> getVolume() {
+        return this.volume;
+    }
+
+    public Factory<VolumeRatiosAlgorithm> getVolumeRatiosAlgorithm() {
+        return this.volumeRatiosAlgorithm;
+    }
+
+    public Factory<NormalizeAlgorithm> getNormalizeAlgorithm() {
+        return this.normalizeAlgorithm;
+    }
+
+    public Factory<Playback> getPlayback() {
+        return this.playback;
+    }
+
+}
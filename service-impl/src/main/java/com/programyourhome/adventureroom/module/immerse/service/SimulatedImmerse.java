@@ -0,0 +1,225 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.programyourhome.immerse.domain.ImmerseSettings;
+import com.programyourhome.immerse.domain.Scenario;
+
+import one.util.streamex.StreamEx;
+
+/**
+ * In-process stand-in for the Immerse server, for load testing without a server and mixer hardware.
+ * Playbacks are simulated with a configurable round trip latency (plus random jitter), playback duration and failure rate.
+ *
+ * The settings are read from system properties when created by the ServiceLoader, see the PROPERTY_* constants.
+ * It is registered for the ServiceLoader next to ImmerseImpl. To select it, set the system property immerse.service.impl
+ * to SimulatedImmerse.
+ */
+public class SimulatedImmerse implements Immerse {
+
+    public static final String PROPERTY_LATENCY_MILLIS = "immerse.simulator.latencyMillis";
+    public static final String PROPERTY_JITTER_MILLIS = "immerse.simulator.jitterMillis";
+    public static final String PROPERTY_DURATION_MILLIS = "immerse.simulator.durationMillis";
+    public static final String PROPERTY_FAILURE_RATE = "immerse.simulator.failureRate";
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final long durationMillis;
+    private final double failureRate;
+    private final ScheduledExecutorService scheduler;
+    private final Map<UUID, CompletableFuture<UUID>> activePlaybacks;
+    private final AtomicLong startedPlaybacks;
+    private final AtomicLong failedPlaybacks;
+    private ImmerseSettings settings;
+    private RoomGeometry roomGeometry;
+
+    public SimulatedImmerse() {
+        this(Long.getLong(PROPERTY_LATENCY_MILLIS, 0), Long.getLong(PROPERTY_JITTER_MILLIS, 0), Long.getLong(PROPERTY_DURATION_MILLIS, 1000),
+                Double.parseDouble(System.getProperty(PROPERTY_FAILURE_RATE, "0")));
+    }
+
+    public SimulatedImmerse(long latencyMillis, long jitterMillis, long durationMillis, double failureRate) {
+        if (latencyMillis < 0 || jitterMillis < 0 || durationMillis < 0) {
+            throw new IllegalArgumentException("Latency, jitter and duration cannot be negative");
+        }
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("Failure rate must be between 0 and 1, not " + failureRate);
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.durationMillis = durationMillis;
+        this.failureRate = failureRate;
+        this.scheduler = Executors.newScheduledThreadPool(2, ImmerseImpl.daemonThreadFactory("immerse-simulator"));
+        this.activePlaybacks = new ConcurrentHashMap<>();
+        this.startedPlaybacks = new AtomicLong();
+        this.failedPlaybacks = new AtomicLong();
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, String host, int port) {
+        this.connect(settings, host, port, false);
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, String host, int port, boolean keepMixerForRestart) {
+        this.connect(settings, RoomGeometry.of(settings.getRoom()), host, port, keepMixerForRestart);
+    }
+
+    @Override
+    public void connect(ImmerseSettings settings, RoomGeometry roomGeometry, String host, int port, boolean keepMixerForRestart) {
+        this.settings = settings;
+        this.roomGeometry = roomGeometry;
+        System.out.println("Immerse simulator started (ignoring " + host + ":" + port + ")");
+    }
+
+    @Override
+    public ImmerseSettings getSettings() {
+        return this.settings;
+    }
+
+    @Override
+    public RoomGeometry getRoomGeometry() {
+        return this.roomGeometry;
+    }
+
+    @Override
+    public ScenarioBuilder scenarioBuilder() {
+        return new ScenarioBuilderImpl(this.settings, this.roomGeometry);
+    }
+
+    @Override
+    public UUID playScenario(Scenario scenario) {
+        return join(this.playScenarioAsync(scenario));
+    }
+
+    @Override
+    public List<UUID> playScenarios(List<Scenario> scenarios) {
+        return join(this.playScenariosAsync(scenarios));
+    }
+
+    @Override
+    public void waitForPlayback(UUID playbackId) {
+        join(this.playbackCompletion(playbackId));
+    }
+
+    @Override
+    public void fadeOutPlayback(UUID playbackId, int millis) {
+        join(this.fadeOutPlaybackAsync(playbackId, millis));
+    }
+
+    @Override
+    public void stopPlayback(UUID playbackId) {
+        join(this.stopPlaybackAsync(playbackId));
+    }
+
+    @Override
+    public CompletableFuture<UUID> playScenarioAsync(Scenario scenario) {
+        return this.afterRoundTrip(this::startPlayback);
+    }
+
+    @Override
+    public CompletableFuture<List<UUID>> playScenariosAsync(List<Scenario> scenarios) {
+        // Like ImmerseImpl: a separate request per scenario, all sent at the same time.
+        List<CompletableFuture<UUID>> playbackIds = StreamEx.of(scenarios).map(this::playScenarioAsync).toList();
+        return CompletableFuture.allOf(playbackIds.toArray(new CompletableFuture<?>[playbackIds.size()]))
+                .thenApply(allDone -> StreamEx.of(playbackIds).map(CompletableFuture::join).toList());
+    }
+
+    @Override
+    public CompletableFuture<UUID> playbackCompletion(UUID playbackId) {
+        return this.activePlaybacks.getOrDefault(playbackId, CompletableFuture.completedFuture(playbackId));
+    }
+
+    @Override
+    public CompletableFuture<Void> fadeOutPlaybackAsync(UUID playbackId, int millis) {
+        return this.afterRoundTrip(() -> {
+            this.scheduler.schedule(() -> this.endPlayback(playbackId), millis, TimeUnit.MILLISECONDS);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stopPlaybackAsync(UUID playbackId) {
+        return this.afterRoundTrip(() -> {
+            this.endPlayback(playbackId);
+            return null;
+        });
+    }
+
+    @Override
+    public void quit() {
+        StreamEx.ofKeys(this.activePlaybacks).forEach(this::endPlayback);
+    }
+
+    @Override
+    public void shutdown() {
+        this.quit();
+    }
+
+    public int getActivePlaybackCount() {
+        return this.activePlaybacks.size();
+    }
+
+    public long getStartedPlaybackCount() {
+        return this.startedPlaybacks.get();
+    }
+
+    public long getFailedPlaybackCount() {
+        return this.failedPlaybacks.get();
+    }
+
+    private UUID startPlayback() {
+        if (this.failureRate > 0 && ThreadLocalRandom.current().nextDouble() < this.failureRate) {
+            this.failedPlaybacks.incrementAndGet();
+            throw new IllegalStateException("Simulated failure to play scenario");
+        }
+        UUID playbackId = UUID.randomUUID();
+        this.activePlaybacks.put(playbackId, new CompletableFuture<>());
+        this.startedPlaybacks.incrementAndGet();
+        this.scheduler.schedule(() -> this.endPlayback(playbackId), this.durationMillis, TimeUnit.MILLISECONDS);
+        return playbackId;
+    }
+
+    private void endPlayback(UUID playbackId) {
+        CompletableFuture<UUID> completion = this.activePlaybacks.remove(playbackId);
+        if (completion != null) {
+            completion.complete(playbackId);
+        }
+    }
+
+    private <T> CompletableFuture<T> afterRoundTrip(Supplier<T> request) {
+        CompletableFuture<T> response = new CompletableFuture<>();
+        long roundTripMillis = this.latencyMillis + (this.jitterMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(this.jitterMillis + 1));
+        this.scheduler.schedule(() -> {
+            try {
+                response.complete(request.get());
+            } catch (RuntimeException e) {
+                response.completeExceptionally(e);
+            }
+        }, roundTripMillis, TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
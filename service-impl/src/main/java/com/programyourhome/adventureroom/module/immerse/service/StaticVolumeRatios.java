@@ -0,0 +1,99 @@
+package com.programyourhome.adventureroom.module.immerse.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.programyourhome.immerse.domain.Factory;
+import com.programyourhome.immerse.domain.Room;
+import com.programyourhome.immerse.domain.location.Vector3D;
+import com.programyourhome.immerse.domain.location.dynamic.DynamicLocation;
+import com.programyourhome.immerse.domain.speakers.SpeakerVolumeRatios;
+import com.programyourhome.immerse.domain.speakers.algorithms.volumeratios.VolumeRatiosAlgorithm;
+import com.programyourhome.immerse.toolbox.location.dynamic.FixedDynamicLocation;
+import com.programyourhome.immerse.toolbox.speakers.algorithms.volumeratios.FieldOfHearingVolumeRatiosAlgorithm;
+
+/**
+ * Field of hearing speaker volume ratios for a source and listener that do not move. These are the same for
+ * the whole playback, so they are calculated once on the client and cached per room, source, listener and angle,
+ * instead of being recalculated by the mixer for every buffer.
+ */
+class StaticVolumeRatios {
+
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    private static final Map<Key, SpeakerVolumeRatios> CACHE = new LinkedHashMap<Key, SpeakerVolumeRatios>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, SpeakerVolumeRatios> eldest) {
+            return this.size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    private StaticVolumeRatios() {
+    }
+
+    public static SpeakerVolumeRatios fieldOfHearing(Room room, Vector3D source, Vector3D listener, Optional<Double> angle) {
+        Key key = new Key(room, source, listener, angle);
+        synchronized (CACHE) {
+            SpeakerVolumeRatios ratios = CACHE.get(key);
+            if (ratios != null) {
+                return ratios;
+            }
+        }
+        Factory<DynamicLocation> sourceLocation = FixedDynamicLocation.fixed(source);
+        Factory<DynamicLocation> listenerLocation = FixedDynamicLocation.fixed(listener);
+        Factory<VolumeRatiosAlgorithm> algorithm = angle
+                .map(fieldAngle -> FieldOfHearingVolumeRatiosAlgorithm.fieldOfHearing(room, sourceLocation, listenerLocation, fieldAngle))
+                .orElseGet(() -> FieldOfHearingVolumeRatiosAlgorithm.fieldOfHearing(room, sourceLocation, listenerLocation));
+        // Static locations, so the moment in the playback does not matter.
+        SpeakerVolumeRatios ratios = algorithm.create().calculateVolumeRatios(0);
+        synchronized (CACHE) {
+            CACHE.put(key, ratios);
+        }
+        return ratios;
+    }
+
+    private static class Key {
+        private final Room room;
+        private final double sourceX;
+        private final double sourceY;
+        private final double sourceZ;
+        private final double listenerX;
+        private final double listenerY;
+        private final double listenerZ;
+        private final Optional<Double> angle;
+
+        public Key(Room room, Vector3D source, Vector3D listener, Optional<Double> angle) {
+            this.room = room;
+            this.sourceX = source.getX();
+            this.sourceY = source.getY();
+            this.sourceZ = source.getZ();
+            this.listenerX = listener.getX();
+            this.listenerY = listener.getY();
+            this.listenerZ = listener.getZ();
+            this.angle = angle;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key otherKey = (Key) other;
+            return this.room == otherKey.room
+                    && this.sourceX == otherKey.sourceX && this.sourceY == otherKey.sourceY && this.sourceZ == otherKey.sourceZ
+                    && this.listenerX == otherKey.listenerX && this.listenerY == otherKey.listenerY && this.listenerZ == otherKey.listenerZ
+                    && this.angle.equals(otherKey.angle);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(this.room), this.sourceX, this.sourceY, this.sourceZ,
+                    this.listenerX, this.listenerY, this.listenerZ, this.angle);
+        }
+    }
+
+}